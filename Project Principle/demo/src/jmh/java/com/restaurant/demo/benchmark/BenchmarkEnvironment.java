@@ -0,0 +1,144 @@
+package com.restaurant.demo.benchmark;
+
+import com.restaurant.demo.DemoApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Boots the application once per benchmark JVM against an in-memory H2 (same Flyway schema as
+ * production) and seeds it with a realistic data volume.
+ *
+ * Volume is controlled with -Dbench.orders (default 100000); every order has 1-4 items, about
+ * 70% are Finish and they are spread over the last 365 days.
+ */
+public final class BenchmarkEnvironment {
+
+    public static final String[] MENU = {
+            "Bamee Moo Daeng", "Bamee Kiew Moo", "Kuay Teow Tom Yum", "Pad Thai", "Pad See Ew",
+            "Khao Man Gai", "Khao Pad", "Som Tam", "Thai Tea", "Green Tea",
+            "Iced Coffee", "Lemon Soda", "Mango Sticky Rice", "Bua Loy", "Khanom Krok"
+    };
+
+    private static final String[] CATEGORIES = {"Noodles", "Beverages", "Desserts"};
+    private static final String[] STATUSES = {
+            "Finish", "Finish", "Finish", "Finish", "Finish", "Finish", "Finish", "Cancelled", "Pending", "In Progress"
+    };
+    private static final int CUSTOMERS = 1_000;
+    private static final int BATCH_SIZE = 5_000;
+
+    private static ConfigurableApplicationContext context;
+
+    private BenchmarkEnvironment() {
+    }
+
+    /**
+     * Start (once) and return the seeded application context
+     *
+     * @param extraArgs Additional --property=value arguments (only used by the first call)
+     */
+    public static synchronized ConfigurableApplicationContext start(String... extraArgs) {
+        if (context == null) {
+            // passed as arguments so they win over application-test.properties
+            List<String> args = new ArrayList<>(List.of(
+                    "--server.port=0",
+                    "--spring.datasource.url=jdbc:h2:mem:jmh;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                    "--spring.jpa.show-sql=false",
+                    "--spring.jpa.properties.hibernate.generate_statistics=false",
+                    "--spring.h2.console.enabled=false",
+                    "--logging.level.root=WARN",
+                    "--logging.level.com.restaurant.demo=WARN",
+                    "--logging.level.org.springframework.web=WARN"));
+            args.addAll(List.of(extraArgs));
+            context = new SpringApplicationBuilder(DemoApplication.class)
+                    .profiles("test")
+                    .run(args.toArray(String[]::new));
+            seed(context.getBean(JdbcTemplate.class), Integer.getInteger("bench.orders", 100_000));
+        }
+        return context;
+    }
+
+    public static synchronized void stop() {
+        if (context != null) {
+            context.close();
+            context = null;
+        }
+    }
+
+    public static <T> T bean(Class<T> type) {
+        return start().getBean(type);
+    }
+
+    /**
+     * Id of a seeded customer
+     *
+     * @param index 1..1000
+     */
+    public static Long customerId(int index) {
+        return bean(JdbcTemplate.class).queryForObject(
+                "SELECT id FROM customers WHERE username = ?", Long.class, "bench" + index);
+    }
+
+    private static void seed(JdbcTemplate jdbc, int orderCount) {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp nowTs = Timestamp.valueOf(now);
+
+        List<Object[]> menuRows = new ArrayList<>();
+        for (int i = 0; i < MENU.length; i++) {
+            menuRows.add(new Object[]{CATEGORIES[i % CATEGORIES.length], MENU[i], 40.0 + i * 5, MENU[i]});
+        }
+        jdbc.batchUpdate("INSERT INTO menu_items (category, name, price, description, active) VALUES (?, ?, ?, ?, TRUE)",
+                menuRows);
+
+        List<Object[]> customerRows = new ArrayList<>();
+        for (int i = 1; i <= CUSTOMERS; i++) {
+            customerRows.add(new Object[]{"Customer " + i, "bench" + i, "bench" + i + "@example.com",
+                    String.format("08%08d", i), "not-a-real-hash", nowTs, nowTs});
+        }
+        jdbc.batchUpdate("INSERT INTO customers (name, username, email, phone, password_hash, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)", customerRows);
+
+        long spanMinutes = 365L * 24 * 60;
+        for (int start = 0; start < orderCount; start += BATCH_SIZE) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = start; i < Math.min(start + BATCH_SIZE, orderCount); i++) {
+                Timestamp createdAt = Timestamp.valueOf(now.minusMinutes((i * 7919L) % spanMinutes));
+                // fresh database, so the seeded customers have ids 1..CUSTOMERS
+                rows.add(new Object[]{(i % CUSTOMERS) + 1, STATUSES[i % STATUSES.length], createdAt, createdAt});
+            }
+            jdbc.batchUpdate("INSERT INTO orders (customer_id, status, total_amount, created_at, updated_at) "
+                    + "VALUES (?, ?, 0, ?, ?)", rows);
+        }
+
+        // 1-4 items per order, picked from the menu by order id
+        for (int line = 0; line < 4; line++) {
+            StringBuilder name = new StringBuilder("CASE MOD(o.id + " + line * 7 + ", " + MENU.length + ")");
+            for (int i = 0; i < MENU.length; i++) {
+                name.append(" WHEN ").append(i).append(" THEN '").append(MENU[i]).append("'");
+            }
+            name.append(" END");
+            jdbc.update("INSERT INTO order_items (order_id, item_name, item_price, quantity, total, created_at, updated_at) "
+                    + "SELECT o.id, " + name + ", 60.00, " + (line + 1) + ", " + (60 * (line + 1)) + ".00, o.created_at, o.created_at "
+                    + "FROM orders o WHERE MOD(o.id, 4) >= " + line);
+        }
+        jdbc.update("UPDATE orders o SET total_amount = (SELECT SUM(oi.total) FROM order_items oi WHERE oi.order_id = o.id)");
+
+        // Seeded rows used AUTO_INCREMENT; move the pooled order item generator past them
+        jdbc.update("UPDATE id_generators SET next_val = (SELECT MAX(id) FROM order_items) + 51 "
+                + "WHERE sequence_name = 'order_items'");
+
+        // Same backfill the V4 migration runs for existing data
+        jdbc.update("INSERT INTO sales_daily (sales_date, revenue, order_count) "
+                + "SELECT CAST(o.created_at AS DATE), SUM(o.total_amount), COUNT(*) FROM orders o "
+                + "WHERE o.status = 'Finish' GROUP BY CAST(o.created_at AS DATE)");
+        jdbc.update("INSERT INTO sales_daily_item (sales_date, item_name, quantity) "
+                + "SELECT CAST(o.created_at AS DATE), oi.item_name, SUM(oi.quantity) FROM order_items oi "
+                + "JOIN orders o ON oi.order_id = o.id WHERE o.status = 'Finish' "
+                + "GROUP BY CAST(o.created_at AS DATE), oi.item_name");
+    }
+}
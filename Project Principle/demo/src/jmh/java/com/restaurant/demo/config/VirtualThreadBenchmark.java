@@ -0,0 +1,123 @@
+package com.restaurant.demo.config;
+
+import com.restaurant.demo.benchmark.BenchmarkEnvironment;
+import com.restaurant.demo.service.auth.AuthPrincipal;
+import com.restaurant.demo.service.auth.AuthTokenService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Platform vs virtual request threads under a burst of concurrent customers.
+ *
+ * Each invocation sends one order-history request per simulated customer, all at once, against
+ * the running app (Tomcat + Hikari pool of 20 + H2) and waits for every response; the score is
+ * the time for the whole wave. virtual starts the app with the virtual-threads profile (and its
+ * connection admission limit) and needs a Java 21+ JVM, so only platform runs by default; the
+ * benchmark-java21 Maven profile adds virtual when the build runs on Java 21+. Non-200 responses
+ * are reported in the failedRequests counter.
+ *
+ * mvn -Pbenchmark test-compile exec:exec -Djmh.args="VirtualThreadBenchmark" -Dbench.orders=20000
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    // "virtual" is added with -p threads=platform,virtual (benchmark-java21 profile)
+    @Param({"platform"})
+    public String threads;
+
+    @Param({"500", "2000"})
+    public int customers;
+
+    private HttpClient client;
+    private List<HttpRequest> requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean virtual = threads.equals("virtual");
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("threads=virtual needs Java 21+, running on " + Runtime.version()
+                    + "; drop it from -p threads");
+        }
+        ConfigurableApplicationContext context = virtual
+                ? BenchmarkEnvironment.start("--spring.profiles.active=virtual-threads")
+                : BenchmarkEnvironment.start();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        AuthTokenService tokens = context.getBean(AuthTokenService.class);
+
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        requests = new ArrayList<>(customers);
+        for (int i = 0; i < customers; i++) {
+            // customers beyond the 1000 seeded ones reuse seeded accounts
+            Long customerId = BenchmarkEnvironment.customerId(i % 1000 + 1);
+            String token = tokens.issue(AuthPrincipal.Role.CUSTOMER, customerId, "bench" + (i % 1000 + 1));
+            requests.add(HttpRequest.newBuilder(URI.create(
+                            "http://localhost:" + port + "/api/orders/customers/" + customerId + "/orders?limit=20"))
+                    .header("Authorization", "Bearer " + token)
+                    .timeout(Duration.ofSeconds(120))
+                    .GET()
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkEnvironment.stop();
+    }
+
+    @Benchmark
+    public int concurrentCustomers(Failures failures) {
+        List<CompletableFuture<Integer>> responses = new ArrayList<>(requests.size());
+        for (HttpRequest request : requests) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenApply(HttpResponse::statusCode)
+                    .exceptionally(e -> -1));
+        }
+        int ok = 0;
+        for (CompletableFuture<Integer> response : responses) {
+            if (response.join() == 200) {
+                ok++;
+            } else {
+                failures.failedRequests++;
+            }
+        }
+        return ok;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Failures {
+        public long failedRequests;
+    }
+}
@@ -0,0 +1,55 @@
+package com.restaurant.demo.model;
+
+import com.restaurant.demo.benchmark.BenchmarkEnvironment;
+import com.restaurant.demo.repository.OrderRepository;
+import com.restaurant.demo.service.user.UserDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Manager.viewSalesReportFromOrders over the last week of seeded orders (in memory, no database access).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ManagerSalesReportBenchmark {
+
+    private Manager manager;
+    private List<Order> orders;
+    private List<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        orders = BenchmarkEnvironment.bean(OrderRepository.class).findByCreatedAtBetween(now.minusDays(7), now);
+        users = BenchmarkEnvironment.bean(UserDirectory.class).findAll();
+        manager = new Manager(1L, "Admin User");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkEnvironment.stop();
+    }
+
+    @Benchmark
+    public Manager.SalesReport viewSalesReportFromOrders() {
+        return manager.viewSalesReportFromOrders(orders, users);
+    }
+}
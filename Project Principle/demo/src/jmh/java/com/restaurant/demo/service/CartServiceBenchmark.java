@@ -0,0 +1,76 @@
+package com.restaurant.demo.service;
+
+import com.restaurant.demo.benchmark.BenchmarkEnvironment;
+import com.restaurant.demo.model.CartItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CartService.addToCart (by menu item id) and calculateCartTotal on a 10-item cart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartServiceBenchmark {
+
+    private static final int CART_ITEMS = 10;
+
+    private CartService cartService;
+    private List<Long> menuItemIds;
+    private Long addCustomerId;
+    private Long totalCustomerId;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cartService = BenchmarkEnvironment.bean(CartService.class);
+        JdbcTemplate jdbcTemplate = BenchmarkEnvironment.bean(JdbcTemplate.class);
+        menuItemIds = jdbcTemplate.queryForList("SELECT id FROM menu_items ORDER BY id", Long.class);
+        addCustomerId = BenchmarkEnvironment.customerId(2);
+        totalCustomerId = BenchmarkEnvironment.customerId(3);
+
+        for (int i = 0; i < CART_ITEMS; i++) {
+            cartService.addToCart(totalCustomerId, menuItemIds.get(i), 2);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void emptyCart() {
+        // keep the add path cycling through insert + capped update instead of only updates
+        cartService.clearCart(addCustomerId);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkEnvironment.stop();
+    }
+
+    @Benchmark
+    public CartItem addToCart() {
+        Long menuItemId = menuItemIds.get(next++ % menuItemIds.size());
+        return cartService.addToCart(addCustomerId, menuItemId, 1);
+    }
+
+    @Benchmark
+    public BigDecimal calculateCartTotal() {
+        return cartService.calculateCartTotal(totalCustomerId);
+    }
+}
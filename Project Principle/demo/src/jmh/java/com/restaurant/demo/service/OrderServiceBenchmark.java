@@ -0,0 +1,85 @@
+package com.restaurant.demo.service;
+
+import com.restaurant.demo.benchmark.BenchmarkEnvironment;
+import com.restaurant.demo.dto.OrderResponseDto;
+import com.restaurant.demo.model.Order;
+import com.restaurant.demo.repository.OrderRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.AopTestUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderService.placeOrder (checkout of a 12-item group order) and mapOrderToDto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    private static final int CART_ITEMS = 12;
+
+    private OrderService orderService;
+    private OrderService orderServiceTarget;
+    private JdbcTemplate jdbcTemplate;
+    private Long customerId;
+    private Order loadedOrder;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        orderService = BenchmarkEnvironment.bean(OrderService.class);
+        // mapOrderToDto is measured without the transactional proxy around it
+        orderServiceTarget = AopTestUtils.getUltimateTargetObject(orderService);
+        jdbcTemplate = BenchmarkEnvironment.bean(JdbcTemplate.class);
+        customerId = BenchmarkEnvironment.customerId(1);
+
+        // seeded orders with id % 4 == 3 carry four items
+        Long orderId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM orders WHERE MOD(id, 4) = 3", Long.class);
+        loadedOrder = BenchmarkEnvironment.bean(OrderRepository.class).findWithItemsById(orderId).orElseThrow();
+    }
+
+    @Setup(Level.Invocation)
+    public void fillCart() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < CART_ITEMS; i++) {
+            rows.add(new Object[]{customerId, BenchmarkEnvironment.MENU[i], 60.00, 2, now, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO cart_items (customer_id, item_name, item_price, quantity, status, created_at, updated_at) "
+                + "VALUES (?, ?, ?, ?, 'Pending', ?, ?)", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkEnvironment.stop();
+    }
+
+    @Benchmark
+    public OrderResponseDto placeOrder() {
+        return orderService.placeOrder(customerId, null);
+    }
+
+    @Benchmark
+    public OrderResponseDto mapOrderToDto() {
+        return orderServiceTarget.mapOrderToDto(loadedOrder);
+    }
+}
@@ -0,0 +1,59 @@
+package com.restaurant.demo.service.impl;
+
+import com.restaurant.demo.benchmark.BenchmarkEnvironment;
+import com.restaurant.demo.dto.ReportSummary;
+import com.restaurant.demo.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReportServiceImpl.getMonthlyReport for a single month and for a whole year.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MonthlyReportBenchmark {
+
+    private ReportService reportService;
+    private int year;
+    private int month;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reportService = BenchmarkEnvironment.bean(ReportService.class);
+        LocalDate today = LocalDate.now();
+        year = today.getYear();
+        month = today.getMonthValue();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkEnvironment.stop();
+    }
+
+    @Benchmark
+    public ReportSummary month() {
+        return reportService.getMonthlyReport(month, year);
+    }
+
+    @Benchmark
+    public ReportSummary wholeYear() {
+        return reportService.getMonthlyReport(0, year);
+    }
+}
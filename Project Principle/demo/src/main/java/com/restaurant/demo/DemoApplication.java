@@ -3,10 +3,12 @@ package com.restaurant.demo;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import com.restaurant.demo.exception.GlobalExceptionHandler;
 
 @SpringBootApplication
 @Import(GlobalExceptionHandler.class)
+@EnableScheduling
 public class DemoApplication {
     public static void main(String[] args) {
         SpringApplication.run(DemoApplication.class, args);
@@ -0,0 +1,39 @@
+package com.restaurant.demo.config;
+
+import com.restaurant.demo.service.auth.AuthPrincipal.Role;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Which role may call which API. This is the single place API access is decided;
+ * controllers can assume the caller passed these checks. Paths not listed here (logins,
+ * registration, the public menu reads) are open to anonymous callers.
+ */
+@Configuration
+public class AuthInterceptorConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        RoleInterceptor roles = new RoleInterceptor()
+                // Kitchen tablets
+                .permit("/api/employees/login")
+                .permit("/api/employees/logout")
+                .require(Role.EMPLOYEE, "/api/employees/orders/**")
+                // Manager dashboard (reading the menu stays public)
+                .require(Role.MANAGER, "/api/employees/**")
+                .require(Role.MANAGER, "/api/manager/menu-items/**", "POST", "PUT", "DELETE")
+                .require(Role.MANAGER, "/api/menuItems/**", "POST", "PUT", "DELETE")
+                .require(Role.MANAGER, "/api/managers/**")
+                .require(Role.MANAGER, "/api/carts/**")
+                .require(Role.MANAGER, "/api/reports/**")
+                .require(Role.MANAGER, "/api/monthly")
+                .require(Role.MANAGER, "/api/currentUser")
+                // Customers, only for their own customerId
+                .require(Role.CUSTOMER, "/api/customers/{customerId:\\d+}")
+                .require(Role.CUSTOMER, "/api/orders/customers/{customerId}/**")
+                .require(Role.CUSTOMER, "/api/cart/**");
+
+        registry.addInterceptor(roles).addPathPatterns("/api/**");
+    }
+}
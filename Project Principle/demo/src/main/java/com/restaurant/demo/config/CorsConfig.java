@@ -19,6 +19,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 .allowedOrigins("http://localhost:3000", "http://localhost:8080", "http://127.0.0.1:3000", "http://127.0.0.1:8080")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("X-Next-Cursor", "ETag")
                 .allowCredentials(true)
                 .maxAge(3600);
 
@@ -49,6 +50,9 @@ public class CorsConfig implements WebMvcConfigurer {
         // Allow all headers
         configuration.setAllowedHeaders(Arrays.asList("*"));
 
+        // Let browsers read the pagination cursor header
+        configuration.setExposedHeaders(Arrays.asList("X-Next-Cursor", "ETag"));
+
         // Allow credentials (cookies, authorization headers)
         configuration.setAllowCredentials(true);
 
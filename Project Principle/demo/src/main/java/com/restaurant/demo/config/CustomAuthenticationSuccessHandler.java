@@ -2,10 +2,11 @@ package com.restaurant.demo.config;
 
 import com.restaurant.demo.model.Customer;
 import com.restaurant.demo.service.CustomerService;
+import com.restaurant.demo.service.auth.AuthPrincipal;
+import com.restaurant.demo.service.auth.AuthTokenService;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import jakarta.servlet.http.HttpSession;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
@@ -23,9 +24,12 @@ import java.util.Optional;
 public class CustomAuthenticationSuccessHandler implements AuthenticationSuccessHandler {
 
     private final CustomerService customerService;
+    private final AuthTokenService authTokenService;
 
-    public CustomAuthenticationSuccessHandler(@Lazy CustomerService customerService) {
+    public CustomAuthenticationSuccessHandler(@Lazy CustomerService customerService,
+                                              AuthTokenService authTokenService) {
         this.customerService = customerService;
+        this.authTokenService = authTokenService;
     }
 
     @Override
@@ -43,10 +47,8 @@ public class CustomAuthenticationSuccessHandler implements AuthenticationSuccess
             Customer customer = customerOpt.get();
             Long customerId = customer.getId();
             
-            // Store customer ID in HTTP session for server-side validation
-            HttpSession session = request.getSession();
-            session.setAttribute("customerId", customerId);
-            session.setAttribute("username", customer.getUsername());
+            // Issue the signed auth cookie used for server-side validation
+            authTokenService.issueCookie(response, AuthPrincipal.Role.CUSTOMER, customerId, customer.getUsername());
             
             // Redirect to customer-specific page
             response.sendRedirect(request.getContextPath() + "/customer/" + customerId);
@@ -0,0 +1,39 @@
+package com.restaurant.demo.config;
+
+import com.restaurant.demo.service.auth.LoginThrottle;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+
+import java.io.IOException;
+
+/**
+ * Failed customer form login: wrong credentials count against the username in
+ * {@link LoginThrottle} and go back to /login?error, like the JSON logins' recordFailure.
+ * Anything else (the password hash pool was busy) goes to /login?busy and is not counted.
+ */
+public class LoginFailureHandler extends SimpleUrlAuthenticationFailureHandler {
+
+    private final LoginThrottle loginThrottle;
+    private final String usernameParameter;
+
+    public LoginFailureHandler(LoginThrottle loginThrottle, String usernameParameter) {
+        super("/login?error");
+        this.loginThrottle = loginThrottle;
+        this.usernameParameter = usernameParameter;
+    }
+
+    @Override
+    public void onAuthenticationFailure(HttpServletRequest request, HttpServletResponse response,
+                                        AuthenticationException exception) throws IOException, ServletException {
+        if (!(exception instanceof BadCredentialsException)) {
+            getRedirectStrategy().sendRedirect(request, response, "/login?busy");
+            return;
+        }
+        loginThrottle.recordFailure(request.getParameter(usernameParameter), request.getRemoteAddr());
+        super.onAuthenticationFailure(request, response, exception);
+    }
+}
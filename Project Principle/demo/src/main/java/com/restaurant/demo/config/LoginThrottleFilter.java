@@ -0,0 +1,47 @@
+package com.restaurant.demo.config;
+
+import com.restaurant.demo.exception.LoginThrottledException;
+import com.restaurant.demo.service.auth.LoginThrottle;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs {@link LoginThrottle#acquire} for the customer login form (POST /login) before Spring
+ * Security's UsernamePasswordAuthenticationFilter looks the user up and checks the password.
+ * A throttled attempt is sent back to the login page and never reaches bcrypt.
+ */
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private final LoginThrottle loginThrottle;
+    private final String loginProcessingUrl;
+    private final String usernameParameter;
+
+    public LoginThrottleFilter(LoginThrottle loginThrottle, String loginProcessingUrl, String usernameParameter) {
+        this.loginThrottle = loginThrottle;
+        this.loginProcessingUrl = loginProcessingUrl;
+        this.usernameParameter = usernameParameter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+                || !(request.getContextPath() + loginProcessingUrl).equals(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try {
+            loginThrottle.acquire(request.getParameter(usernameParameter), request.getRemoteAddr());
+        } catch (LoginThrottledException e) {
+            response.sendRedirect(request.getContextPath() + "/login?throttled");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
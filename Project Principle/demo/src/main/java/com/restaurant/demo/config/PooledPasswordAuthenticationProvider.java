@@ -0,0 +1,78 @@
+package com.restaurant.demo.config;
+
+import com.restaurant.demo.exception.ServiceBusyException;
+import com.restaurant.demo.service.auth.PasswordHashService;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * DaoAuthenticationProvider for the customer login form whose password checks, including the
+ * dummy check for unknown usernames, run on the {@link PasswordHashService} pool like the JSON
+ * logins. A full pool fails the login with AuthenticationServiceException instead of running
+ * bcrypt on the request thread.
+ *
+ * A hash made with a weaker cost is re-hashed on the same pool after the login returns and
+ * stored through the UserDetailsPasswordService, so it is not set on the superclass (which
+ * would encode on the request thread).
+ */
+public class PooledPasswordAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final PasswordHashService passwordHashService;
+    private final UserDetailsPasswordService passwordUpdates;
+
+    public PooledPasswordAuthenticationProvider(UserDetailsService userDetailsService,
+                                                PasswordEncoder passwordEncoder,
+                                                PasswordHashService passwordHashService,
+                                                UserDetailsPasswordService passwordUpdates) {
+        super(userDetailsService);
+        setPasswordEncoder(new PooledPasswordEncoder(passwordEncoder, passwordHashService));
+        this.passwordHashService = passwordHashService;
+        this.passwordUpdates = passwordUpdates;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        // copy: ProviderManager erases the credentials of the returned user before the re-hash runs
+        UserDetails stored = User.withUserDetails(user).build();
+        passwordHashService.upgradeInBackground(authentication.getCredentials().toString(), stored.getPassword(),
+                hash -> passwordUpdates.updatePassword(stored, hash));
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+
+    private static final class PooledPasswordEncoder implements PasswordEncoder {
+
+        private final PasswordEncoder delegate;
+        private final PasswordHashService passwordHashService;
+
+        private PooledPasswordEncoder(PasswordEncoder delegate, PasswordHashService passwordHashService) {
+            this.delegate = delegate;
+            this.passwordHashService = passwordHashService;
+        }
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            return delegate.encode(rawPassword);
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            try {
+                return passwordHashService.matches(rawPassword.toString(), encodedPassword);
+            } catch (ServiceBusyException e) {
+                throw new AuthenticationServiceException(e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return delegate.upgradeEncoding(encodedPassword);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.restaurant.demo.config;
+
+import com.restaurant.demo.service.auth.AuthPrincipal;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Enforces which role may call which API path, before the controller is dispatched.
+ *
+ * Rules are checked in the order they were added and the first matching one applies; paths
+ * without a rule, or whose first match is a permit rule, are left alone. Customer rules additionally require the customerId in the path
+ * (or the customerId request parameter) to be the caller's own. Rejections write one of two
+ * constant, pre-serialized JSON bodies, so the hot order endpoints build no error maps.
+ */
+public class RoleInterceptor implements HandlerInterceptor {
+
+    private static final byte[] UNAUTHORIZED_BODY =
+            "{\"error\":\"Unauthorized. Please login first.\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] FORBIDDEN_BODY =
+            "{\"error\":\"Forbidden. Your account cannot perform this action.\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final String CUSTOMER_ID = "customerId";
+
+    private final List<Rule> rules = new ArrayList<>();
+
+    /**
+     * Require a role for a path pattern, for the given HTTP methods (all methods when none given)
+     */
+    public RoleInterceptor require(AuthPrincipal.Role role, String pattern, String... methods) {
+        rules.add(new Rule(PathPatternParser.defaultInstance.parse(pattern), Set.of(methods), role));
+        return this;
+    }
+
+    /**
+     * Leave a path pattern open to anonymous callers, ahead of a broader rule added after it
+     */
+    public RoleInterceptor permit(String pattern, String... methods) {
+        rules.add(new Rule(PathPatternParser.defaultInstance.parse(pattern), Set.of(methods), null));
+        return this;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws IOException {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return true;
+        }
+        Rule rule = match(request);
+        if (rule == null || rule.role() == null) {
+            return true;
+        }
+        AuthPrincipal principal = AuthPrincipal.from(request);
+        if (principal == null) {
+            reject(response, HttpStatus.UNAUTHORIZED, UNAUTHORIZED_BODY);
+            return false;
+        }
+        if (!principal.is(rule.role()) || (rule.role() == AuthPrincipal.Role.CUSTOMER && !ownsCustomer(request, principal))) {
+            reject(response, HttpStatus.FORBIDDEN, FORBIDDEN_BODY);
+            return false;
+        }
+        return true;
+    }
+
+    private Rule match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        String method = request.getMethod();
+        for (Rule rule : rules) {
+            if ((rule.methods().isEmpty() || rule.methods().contains(method)) && rule.pattern().matches(path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean ownsCustomer(HttpServletRequest request, AuthPrincipal principal) {
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String customerId = pathVariables != null ? pathVariables.get(CUSTOMER_ID) : null;
+        if (customerId == null) {
+            customerId = request.getParameter(CUSTOMER_ID);
+        }
+        // ไม่มี customerId ใน request ก็ไม่มีอะไรให้เทียบ ปล่อยให้ controller validate เอง
+        return customerId == null || customerId.equals(String.valueOf(principal.id()));
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, byte[] body) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // role is null for permit rules
+    private record Rule(PathPattern pattern, Set<String> methods, AuthPrincipal.Role role) {
+    }
+}
@@ -1,15 +1,22 @@
 package com.restaurant.demo.config;
 
 import com.restaurant.demo.service.CustomUserDetailsService;
+import com.restaurant.demo.service.auth.AuthTokenService;
+import com.restaurant.demo.service.auth.LoginThrottle;
+import com.restaurant.demo.service.auth.PasswordHashService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 
 @Configuration
 @EnableWebSecurity
@@ -21,29 +28,47 @@ public class SecurityConfig {
     @Autowired
     private CustomAuthenticationSuccessHandler authenticationSuccessHandler;
 
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
+    // bcrypt cost (log2 rounds); raising it rehashes stored passwords on their next login
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
+    // Customer form login: password checks on the hash pool, re-hashes stored by userDetailsService
+    // (a parameter, not a field: PasswordHashService itself needs passwordEncoder())
     @Bean
-    public DaoAuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-        authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
-        return authProvider;
+    public DaoAuthenticationProvider authenticationProvider(PasswordHashService passwordHashService) {
+        return new PooledPasswordAuthenticationProvider(
+                userDetailsService, passwordEncoder(), passwordHashService, userDetailsService);
     }
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, DaoAuthenticationProvider authenticationProvider) throws Exception {
         http.csrf(csrf -> csrf
+            // CSRF token อยู่ใน cookie แทน session เพื่อไม่ต้องเก็บ state ฝั่ง server
+            .csrfTokenRepository(new CookieCsrfTokenRepository())
             // ยกเว้นการตรวจสอบ CSRF สำหรับทุก API ที่เริ่มต้นด้วย /api/
             // เนื่องจาก API เหล่านี้มักจะถูกเรียกจาก JavaScript โดยไม่มี Token
             .ignoringRequestMatchers(
                 "/api/**" // <-- ใช้ /api/** เพื่อครอบคลุม /api/cart/**, /api/manager/** ฯลฯ
             ) 
         )
-            .authenticationProvider(authenticationProvider())
+            // Login state lives in the signed AUTH_TOKEN cookie, not in HttpSession
+            // (the app is still single-instance, see AuthTokenService)
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new AuthTokenFilter(authTokenService), UsernamePasswordAuthenticationFilter.class)
+            // The customer login form is throttled like the JSON logins, before any lookup or bcrypt
+            .addFilterBefore(new LoginThrottleFilter(loginThrottle, "/login", "username"), UsernamePasswordAuthenticationFilter.class)
+            .authenticationProvider(authenticationProvider)
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/", "/login", "/register", "/css/**", "/js/**", "/images/**", "/static/**", "/api/customers/login", "/api/customers/register", "/api/customers/**").permitAll()
                 .requestMatchers("/customer/**", "/api/cart/**").permitAll()
@@ -56,13 +81,14 @@ public class SecurityConfig {
                 .loginPage("/login")
                 .loginProcessingUrl("/login")  // Only process /login for customer authentication
                 .successHandler(authenticationSuccessHandler)
+                .failureHandler(new LoginFailureHandler(loginThrottle, "username"))
                 .permitAll()
             )
             .logout(logout -> logout
                 .logoutUrl("/logout")
                 .logoutSuccessUrl("/")
                 .invalidateHttpSession(true)
-                .deleteCookies("JSESSIONID")
+                .deleteCookies("JSESSIONID", AuthTokenService.COOKIE_NAME)
                 .permitAll()
             );
 
@@ -0,0 +1,36 @@
+package com.restaurant.demo.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Extra wiring for the opt-in virtual-thread mode (spring.threads.virtual.enabled=true on
+ * Java 21+, see the virtual-threads profile). Spring Boot itself moves Tomcat request handling,
+ * the application task executor (@Async) and the scheduler onto virtual threads; this adds the
+ * connection admission limit in front of the Hikari pool.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    public static BeanPostProcessor dataSourceAdmissionPostProcessor(
+            @Value("${db.admission.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int permits,
+            @Value("${db.admission.timeout-ms:${spring.datasource.hikari.connection-timeout:30000}}") long timeoutMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof AdmissionControlledDataSource)) {
+                    return new AdmissionControlledDataSource(dataSource, permits, timeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
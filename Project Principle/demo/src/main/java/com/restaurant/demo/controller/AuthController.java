@@ -2,7 +2,9 @@ package com.restaurant.demo.controller;
 
 import com.restaurant.demo.controller.auth.LoginRequest;
 import com.restaurant.demo.controller.auth.UserView;
+import com.restaurant.demo.service.auth.LoginThrottle;
 import com.restaurant.demo.service.user.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -15,16 +17,22 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
 
     private final AuthService authService;
+    private final LoginThrottle loginThrottle;
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, LoginThrottle loginThrottle) {
         this.authService = authService;
+        this.loginThrottle = loginThrottle;
     }
 
     @PostMapping("/login")
-    public ResponseEntity<UserView> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<UserView> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        loginThrottle.acquire(request.getUsername(), httpRequest.getRemoteAddr());
         return authService.authenticate(request.getUsername(), request.getPassword())
                 .map(UserView::from)
                 .map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+                .orElseGet(() -> {
+                    loginThrottle.recordFailure(request.getUsername(), httpRequest.getRemoteAddr());
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+                });
     }
 }
@@ -1,5 +1,6 @@
 package com.restaurant.demo.controller;
 
+import com.restaurant.demo.dto.CartSummaryDto;
 import com.restaurant.demo.model.CartItem;
 import com.restaurant.demo.service.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -113,4 +114,15 @@ public class CartController {
         BigDecimal total = cartService.calculateCartTotal(customerId);
         return new ResponseEntity<>(total, HttpStatus.OK);
     }
+
+    /**
+     * Get cart lines, total and item count for a customer in one call
+     */
+    @GetMapping("/summary/{customerId}")
+    public ResponseEntity<CartSummaryDto> getCartSummary(
+            @PathVariable @NotNull(message = "Customer ID is required") @Positive(message = "Customer ID must be positive") Long customerId) {
+
+        CartSummaryDto summary = cartService.getCartSummary(customerId);
+        return new ResponseEntity<>(summary, HttpStatus.OK);
+    }
 }
\ No newline at end of file
@@ -3,7 +3,11 @@ package com.restaurant.demo.controller;
 import com.restaurant.demo.dto.AuthResponseDto;
 import com.restaurant.demo.dto.CustomerLoginDto;
 import com.restaurant.demo.dto.CustomerRegistrationDto;
+import com.restaurant.demo.exception.InvalidCredentialsException;
 import com.restaurant.demo.service.CustomerService;
+import com.restaurant.demo.service.auth.AuthPrincipal;
+import com.restaurant.demo.service.auth.AuthTokenService;
+import com.restaurant.demo.service.auth.LoginThrottle;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -12,7 +16,8 @@ import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
@@ -28,6 +33,12 @@ public class CustomerController {
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
     /**
      * Register a new customer
      */
@@ -44,20 +55,30 @@ public class CustomerController {
 
     /**
      * Authenticate customer login
-     * Stores customer ID in HTTP session for server-side validation
+     * Issues the signed auth cookie (the token is also returned in the body)
+     * Throttled per client IP, and per username after failed attempts, before the password is checked
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDto> loginCustomer(@Valid @RequestBody CustomerLoginDto loginDto, HttpSession session) {
-        logger.info("Login attempt for user: {}, sessionId: {}", loginDto.getUsernameOrEmail(), session.getId());
+    public ResponseEntity<AuthResponseDto> loginCustomer(@Valid @RequestBody CustomerLoginDto loginDto,
+                                                         HttpServletRequest httpRequest,
+                                                         HttpServletResponse httpResponse) {
+        logger.info("Login attempt for user: {}", loginDto.getUsernameOrEmail());
+        
+        loginThrottle.acquire(loginDto.getUsernameOrEmail(), httpRequest.getRemoteAddr());
         
-        AuthResponseDto response = customerService.loginCustomer(loginDto);
+        AuthResponseDto response;
+        try {
+            response = customerService.loginCustomer(loginDto);
+        } catch (InvalidCredentialsException e) {
+            loginThrottle.recordFailure(loginDto.getUsernameOrEmail(), httpRequest.getRemoteAddr());
+            throw e;
+        }
         
-        // Store customer ID in HTTP session for server-side validation
-        session.setAttribute("customerId", response.getCustomerId());
-        session.setAttribute("username", response.getUsername());
+        response.setToken(authTokenService.issueCookie(httpResponse, AuthPrincipal.Role.CUSTOMER,
+                response.getCustomerId(), response.getUsername()));
         
-        logger.info("Login successful - customerId: {}, username: {}, sessionId: {}", 
-            response.getCustomerId(), response.getUsername(), session.getId());
+        logger.info("Login successful - customerId: {}, username: {}", 
+            response.getCustomerId(), response.getUsername());
         
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -1,10 +1,14 @@
 package com.restaurant.demo.controller;
 
-import com.restaurant.demo.model.MenuItem;
 import com.restaurant.demo.service.MenuItemService;
+import com.restaurant.demo.service.menu.MenuItemView;
+import com.restaurant.demo.service.menu.MenuSnapshot;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -21,7 +25,14 @@ public class EmployeeApiController {
    
     // Employees เห็น menu
     @GetMapping("/menu")
-    public List<MenuItem> getMenuForEmployee() {
-        return menuItemService.getActiveMenuItems();
+    public ResponseEntity<List<MenuItemView>> getMenuForEmployee(WebRequest webRequest) {
+        MenuSnapshot menu = menuItemService.getMenuSnapshot();
+        if (webRequest.checkNotModified(menu.getActiveItemsEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(menu.getActiveItemsEtag())
+                .body(menu.getActiveItems());
     }
 }
@@ -1,21 +1,36 @@
 package com.restaurant.demo.controller;
 
 import com.restaurant.demo.dto.EmployeeLoginDto;
+import com.restaurant.demo.dto.OrderPageDto;
 import com.restaurant.demo.dto.OrderResponseDto;
 import com.restaurant.demo.dto.OrderStatusUpdateDto;
+import com.restaurant.demo.exception.LoginThrottledException;
+import com.restaurant.demo.exception.OrderStatusConflictException;
+import com.restaurant.demo.exception.ServiceBusyException;
 import com.restaurant.demo.model.Employee;
+import com.restaurant.demo.model.OrderStatus;
 import com.restaurant.demo.service.EmployeeAuthService;
 import com.restaurant.demo.service.OrderService;
+import com.restaurant.demo.service.auth.AuthPrincipal;
+import com.restaurant.demo.service.auth.AuthTokenService;
+import com.restaurant.demo.service.auth.LoginThrottle;
+import com.restaurant.demo.service.order.LiveOrderBoard;
+import com.restaurant.demo.service.order.OrderFeedService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.util.HashMap;
@@ -40,33 +55,46 @@ public class EmployeeController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderFeedService orderFeedService;
+
+    @Autowired
+    private LiveOrderBoard liveOrderBoard;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
+
     /**
      * Authenticate employee login
-     * Stores employee ID and username in HTTP session
+     * Issues the signed auth cookie (the token is also returned in the body)
+     * Throttled per client IP, and per username after failed attempts, before the password is checked
      * 
      * @param loginDto EmployeeLoginDto containing username and password
-     * @param session HTTP session for storing employee authentication
+     * @param httpRequest Request the client address is taken from
+     * @param httpResponse Response the auth cookie is written to
      * @return ResponseEntity containing employee details
      */
     @PostMapping("/login")
     public ResponseEntity<Map<String, Object>> loginEmployee(
             @Valid @RequestBody EmployeeLoginDto loginDto, 
-            HttpSession session) {
+            HttpServletRequest httpRequest,
+            HttpServletResponse httpResponse) {
         
-        logger.info("Employee login attempt for username: {}, sessionId: {}", 
-                loginDto.getUsername(), session.getId());
+        logger.info("Employee login attempt for username: {}", loginDto.getUsername());
         
         try {
+            loginThrottle.acquire(loginDto.getUsername(), httpRequest.getRemoteAddr());
+            
             // Authenticate employee
             Employee employee = employeeAuthService.authenticateEmployee(loginDto)
                     .orElseThrow(() -> new RuntimeException("Invalid username or password"));
             
-            // Store employee information in session
-            session.setAttribute("employeeId", employee.getId());
-            session.setAttribute("employeeUsername", employee.getUsername());
-            session.setAttribute("employeeName", employee.getName());
-            session.setAttribute("employeePosition", employee.getPosition());
-            session.setAttribute("employeeAuthenticated", true);
+            // Issue the signed auth cookie
+            String token = authTokenService.issueCookie(httpResponse, AuthPrincipal.Role.EMPLOYEE,
+                    employee.getId(), employee.getUsername());
             
             // Prepare response
             Map<String, Object> response = new HashMap<>();
@@ -74,16 +102,32 @@ public class EmployeeController {
             response.put("username", employee.getUsername());
             response.put("name", employee.getName());
             response.put("position", employee.getPosition());
+            response.put("token", token);
             response.put("message", "Login successful");
             
-            logger.info("Employee login successful - employeeId: {}, username: {}, sessionId: {}", 
-                    employee.getId(), employee.getUsername(), session.getId());
+            logger.info("Employee login successful - employeeId: {}, username: {}", 
+                    employee.getId(), employee.getUsername());
             
             return new ResponseEntity<>(response, HttpStatus.OK);
             
+        } catch (LoginThrottledException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("Retry-After", String.valueOf(e.getRetryAfterSeconds()))
+                    .body(errorResponse);
+            
+        } catch (ServiceBusyException e) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", e.getMessage());
+            
+            return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
+            
         } catch (RuntimeException e) {
             logger.warn("Employee login failed for username: {} - {}", 
                     loginDto.getUsername(), e.getMessage());
+            loginThrottle.recordFailure(loginDto.getUsername(), httpRequest.getRemoteAddr());
             
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Invalid username or password");
@@ -93,47 +137,53 @@ public class EmployeeController {
     }
 
     /**
-     * Get all orders with optional status filter
+     * Get orders with optional status filter, newest first
+     * Without limit or cursor every matching order is returned, as before; with either one the
+     * listing is keyset-paginated and the cursor for the next page is returned in the X-Next-Cursor header
+     * Pending and In Progress are served from the live order board
      * 
      * @param status Optional status filter (Pending, In Progress, Finish, Cancelled)
-     * @param session HTTP session for authentication check
+     * @param limit Maximum number of orders to return (1-200, default 50 once paginating)
+     * @param cursor Cursor from the previous page's X-Next-Cursor header
+     * @param principal Calling employee (enforced by RoleInterceptor)
      * @return ResponseEntity containing list of orders
      */
     @GetMapping("/orders")
     public ResponseEntity<?> getAllOrders(
             @RequestParam(required = false) String status,
-            HttpSession session) {
-        
-        // Check if employee is authenticated
-        Boolean isAuthenticated = (Boolean) session.getAttribute("employeeAuthenticated");
-        if (isAuthenticated == null || !isAuthenticated) {
-            logger.warn("Unauthorized access attempt to /api/employees/orders");
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Unauthorized. Please login first.");
-            return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
-        }
+            @RequestParam(required = false) @Min(value = 1, message = "Limit must be at least 1") @Max(value = 200, message = "Limit must not exceed 200") Integer limit,
+            @RequestParam(required = false) String cursor,
+            @RequestAttribute(AuthPrincipal.REQUEST_ATTRIBUTE) AuthPrincipal principal) {
         
         logger.info("Fetching orders - status filter: {}, employeeId: {}", 
-                status, session.getAttribute("employeeId"));
+                status, principal.id());
         
         try {
-            List<OrderResponseDto> orders;
-            
-            if (status != null && !status.isEmpty()) {
-                // Get orders filtered by status
-                orders = orderService.getAllOrdersByStatus(status);
-                logger.info("Found {} orders with status: {}", orders.size(), status);
-            } else {
-                // Get all orders (you may need to implement this or get all statuses)
-                // For now, get all pending orders by default
-                orders = orderService.getAllOrdersByStatus("Pending");
-                logger.info("Found {} pending orders", orders.size());
+            // Default to pending orders when no status filter is given
+            String effectiveStatus = (status != null && !status.isEmpty()) ? status : "Pending";
+            if (limit == null && cursor == null) {
+                List<OrderResponseDto> orders = isOnBoard(effectiveStatus)
+                        ? liveOrderBoard.all(OrderStatus.fromValue(effectiveStatus))
+                        : orderService.getAllOrdersByStatus(effectiveStatus);
+                logger.info("Found {} orders with status: {}", orders.size(), effectiveStatus);
+                return new ResponseEntity<>(orders, HttpStatus.OK);
             }
+
+            int pageSize = limit != null ? limit : OrderPageDto.DEFAULT_LIMIT;
+            OrderPageDto page = isOnBoard(effectiveStatus)
+                    ? liveOrderBoard.page(OrderStatus.fromValue(effectiveStatus), cursor, pageSize)
+                    : orderService.getOrdersByStatusPage(effectiveStatus, cursor, pageSize);
+            List<OrderResponseDto> orders = page.getOrders();
+            logger.info("Found {} orders with status: {}, hasMore: {}", orders.size(), effectiveStatus, page.isHasMore());
             
-            return new ResponseEntity<>(orders, HttpStatus.OK);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(OrderPageDto.NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(orders);
             
         } catch (IllegalArgumentException e) {
-            logger.warn("Invalid status parameter: {}", status);
+            logger.warn("Invalid status or cursor parameter: {} - {}", status, e.getMessage());
             Map<String, String> errorResponse = new HashMap<>();
             errorResponse.put("error", e.getMessage());
             return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
@@ -142,31 +192,24 @@ public class EmployeeController {
 
     /**
      * Get specific order details by order ID
+     * Active orders come from the live order board, others from the database
      * 
      * @param orderId The actual order ID (not customer ID)
-     * @param session HTTP session for authentication check
+     * @param principal Calling employee (enforced by RoleInterceptor)
      * @return ResponseEntity containing order details
      */
     @GetMapping("/orders/{orderId}")
     public ResponseEntity<?> getOrderById(
             @PathVariable @NotNull(message = "Order ID is required") @Positive(message = "Order ID must be positive") Long orderId,
-            HttpSession session) {
-        
-        // Check if employee is authenticated
-        Boolean isAuthenticated = (Boolean) session.getAttribute("employeeAuthenticated");
-        if (isAuthenticated == null || !isAuthenticated) {
-            logger.warn("Unauthorized access attempt to /api/employees/orders/{}", orderId);
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Unauthorized. Please login first.");
-            return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
-        }
+            @RequestAttribute(AuthPrincipal.REQUEST_ATTRIBUTE) AuthPrincipal principal) {
         
         logger.info("Fetching order details for orderId: {}, employeeId: {}", 
-                orderId, session.getAttribute("employeeId"));
+                orderId, principal.id());
         
         try {
             // Get order by actual order ID
-            OrderResponseDto order = orderService.getOrderById(orderId);
+            OrderResponseDto order = liveOrderBoard.get(orderId)
+                    .orElseGet(() -> orderService.getOrderById(orderId));
             
             logger.info("Order details fetched for orderId: {}", orderId);
             
@@ -185,21 +228,12 @@ public class EmployeeController {
      * 
      * @param orderId The actual order ID (not customer ID)
      * @param updateDto OrderStatusUpdateDto containing new status
-     * @param session HTTP session for authentication check
      * @return ResponseEntity containing updated order details
      */
    @PutMapping("/orders/{orderId}/status")
 public ResponseEntity<?> updateOrderStatus(
         @PathVariable @NotNull @Positive Long orderId,
-        @Valid @RequestBody OrderStatusUpdateDto updateDto,
-        HttpSession session) {
-
-    Boolean isAuthenticated = (Boolean) session.getAttribute("employeeAuthenticated");
-    if (isAuthenticated == null || !isAuthenticated) {
-        Map<String, String> errorResponse = new HashMap<>();
-        errorResponse.put("error", "Unauthorized. Please login first.");
-        return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
-    }
+        @Valid @RequestBody OrderStatusUpdateDto updateDto) {
 
     logger.info("Updating order status for orderId: {}, newStatus: {}", orderId, updateDto.getNewStatus());
 
@@ -210,6 +244,11 @@ public ResponseEntity<?> updateOrderStatus(
         logger.info("Order status updated successfully for orderId: {}", orderId);
 
         return new ResponseEntity<>(updatedOrder, HttpStatus.OK);
+    } catch (OrderStatusConflictException e) {
+        logger.warn("Status conflict for orderId: {} - {}", orderId, e.getMessage());
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", e.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
     } catch (IllegalArgumentException e) {
         logger.warn("Invalid status transition for orderId: {} - {}", orderId, e.getMessage());
         Map<String, String> errorResponse = new HashMap<>();
@@ -227,22 +266,14 @@ public ResponseEntity<?> updateOrderStatus(
     /**
      * Get count of pending orders for notification polling
      * 
-     * @param session HTTP session for authentication check
+     * @param principal Calling employee (enforced by RoleInterceptor)
      * @return ResponseEntity containing count of pending orders
      */
     @GetMapping("/orders/pending/count")
-    public ResponseEntity<?> getPendingOrderCount(HttpSession session) {
+    public ResponseEntity<?> getPendingOrderCount(
+            @RequestAttribute(AuthPrincipal.REQUEST_ATTRIBUTE) AuthPrincipal principal) {
         
-        // Check if employee is authenticated
-        Boolean isAuthenticated = (Boolean) session.getAttribute("employeeAuthenticated");
-        if (isAuthenticated == null || !isAuthenticated) {
-            logger.warn("Unauthorized access attempt to /api/employees/orders/pending/count");
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Unauthorized. Please login first.");
-            return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
-        }
-        
-        logger.info("Fetching pending order count, employeeId: {}", session.getAttribute("employeeId"));
+        logger.info("Fetching pending order count, employeeId: {}", principal.id());
         
         try {
             Long pendingCount = orderService.getOrderCountByStatus("Pending");
@@ -264,19 +295,45 @@ public ResponseEntity<?> updateOrderStatus(
     }
 
     /**
-     * Logout employee and invalidate session
+     * Subscribe to the live order feed (Server-Sent Events)
+     * Pushes order-created and order-status-changed events to kitchen tablets,
+     * replacing pending-count polling
+     * 
+     * @param principal Calling employee (enforced by RoleInterceptor)
+     * @return SseEmitter streaming order events
+     */
+    @GetMapping(value = "/orders/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrders(
+            @RequestAttribute(AuthPrincipal.REQUEST_ATTRIBUTE) AuthPrincipal principal) {
+        
+        logger.info("Opening order feed for employeeId: {}", principal.id());
+        
+        SseEmitter emitter = orderFeedService.subscribe();
+        return new ResponseEntity<>(emitter, HttpStatus.OK);
+    }
+
+    // Pending / In Progress lists come from the live board once it has loaded
+    private boolean isOnBoard(String status) {
+        return liveOrderBoard.isReady() && OrderStatus.isValid(status)
+                && LiveOrderBoard.isActive(OrderStatus.fromValue(status));
+    }
+
+    /**
+     * Logout employee and clear the auth cookie
      * 
-     * @param session HTTP session to invalidate
+     * @param principal Caller from the verified auth token, null if not logged in
+     * @param httpResponse Response the expired auth cookie is written to
      * @return ResponseEntity with logout confirmation
      */
     @PostMapping("/logout")
-    public ResponseEntity<Map<String, String>> logout(HttpSession session) {
+    public ResponseEntity<Map<String, String>> logout(
+            @RequestAttribute(name = AuthPrincipal.REQUEST_ATTRIBUTE, required = false) AuthPrincipal principal,
+            HttpServletResponse httpResponse) {
         
-        logger.info("Employee logout - employeeId: {}, sessionId: {}", 
-                session.getAttribute("employeeId"), session.getId());
+        logger.info("Employee logout - employeeId: {}", principal != null ? principal.id() : null);
         
-        // Invalidate session
-        session.invalidate();
+        // Expire the auth token cookie
+        authTokenService.clearCookie(httpResponse);
         
         Map<String, String> response = new HashMap<>();
         response.put("message", "Logout successful");
@@ -6,13 +6,14 @@ import com.restaurant.demo.dto.MenuItemResponse;
 import com.restaurant.demo.model.CartItem;
 import com.restaurant.demo.model.Employee;
 import com.restaurant.demo.model.Manager;
-import com.restaurant.demo.model.MenuItem;
 import com.restaurant.demo.model.User;
 import com.restaurant.demo.service.CartService;
 import com.restaurant.demo.service.ManagerService;
 import com.restaurant.demo.service.MenuItemService;
 import com.restaurant.demo.service.OrderService;
 import com.restaurant.demo.service.ReportService;
+import com.restaurant.demo.service.auth.LoginThrottle;
+import com.restaurant.demo.service.auth.PasswordHashService;
 import com.restaurant.demo.service.employee.EmployeeService;
 import com.restaurant.demo.service.employee.dto.EmployeeCredentials;
 import com.restaurant.demo.service.employee.dto.EmployeeRegistrationRequest;
@@ -20,8 +21,10 @@ import com.restaurant.demo.service.employee.dto.EmployeeRegistrationResult;
 import com.restaurant.demo.service.employee.dto.EmployeeUpdateRequest;
 import com.restaurant.demo.service.manager.ManagerContext;
 import com.restaurant.demo.service.manager.SalesReportService;
-import jakarta.servlet.http.HttpSession;
+import com.restaurant.demo.service.menu.MenuItemView;
+import com.restaurant.demo.service.menu.MenuSnapshot;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -34,11 +37,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 // Add the import for ReportSummary
 import com.restaurant.demo.dto.ReportSummary;
@@ -57,6 +60,8 @@ public class ManagerApiController {
     private final ManagerService managerService;
     private final OrderService orderService;
     private final ReportService reportService;
+    private final PasswordHashService passwordHashService;
+    private final LoginThrottle loginThrottle;
 
     // Constructor-based dependency injection
     // (Spring จะสร้าง instance ของคลาสนี้และฉีด service ที่ต้องการ
@@ -67,7 +72,9 @@ public class ManagerApiController {
                                 MenuItemService menuItemService,
                                 ManagerService managerService,
                                 OrderService orderService,
-                                ReportService reportService) {
+                                ReportService reportService,
+                                PasswordHashService passwordHashService,
+                                LoginThrottle loginThrottle) {
         this.managerContext = managerContext;
         this.employeeService = employeeService;
         this.cartService = cartService;
@@ -76,25 +83,8 @@ public class ManagerApiController {
         this.managerService = managerService;
         this.orderService = orderService;
         this.reportService = reportService;
-    }
-
-    /**
-     * Helper method to check if the current user is a manager (not an employee)
-     * Prevents employees from accessing manager-only endpoints
-     * 
-     * @param session HTTP session
-     * @return true if user is a manager, false otherwise
-     */
-    private boolean isManager(HttpSession session) {
-        // Check if manager is authenticated
-        Boolean managerAuthenticated = (Boolean) session.getAttribute("managerAuthenticated");
-        
-        // Check if employee is authenticated (employees should NOT access manager endpoints)
-        Boolean employeeAuthenticated = (Boolean) session.getAttribute("employeeAuthenticated");
-        
-        // Return true only if manager is authenticated AND employee is NOT authenticated
-        return (managerAuthenticated != null && managerAuthenticated) && 
-               (employeeAuthenticated == null || !employeeAuthenticated);
+        this.passwordHashService = passwordHashService;
+        this.loginThrottle = loginThrottle;
     }
 
     @GetMapping("/currentUser")
@@ -145,22 +135,14 @@ public class ManagerApiController {
     // ===== Employee Registration Endpoint (Task 6.10) =====
     
     /**
-     * Register a new employee (Manager functionality)
+     * Register a new employee (Manager functionality, enforced by RoleInterceptor)
      * Uses EmployeeRegistrationDto with validation
      * 
      * @param dto EmployeeRegistrationDto containing employee registration details
-     * @param session HTTP session for role-based access control
      * @return ResponseEntity containing the registered employee details
      */
     @PostMapping("/managers/employees")
-    public ResponseEntity<?> registerEmployee(@Valid @RequestBody EmployeeRegistrationDto dto, HttpSession session) {
-        // Role-based access control: Only managers can register employees
-        if (!isManager(session)) {
-            java.util.Map<String, String> errorResponse = new java.util.HashMap<>();
-            errorResponse.put("error", "Unauthorized. Only managers can register employees.");
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
-        }
-        
+    public ResponseEntity<?> registerEmployee(@Valid @RequestBody EmployeeRegistrationDto dto) {
         try {
             Employee employee = managerService.registerEmployee(dto);
             
@@ -220,14 +202,7 @@ public class ManagerApiController {
 
     // Task 3.1: POST /api/manager/menu-items - Create new menu item
     @PostMapping("/manager/menu-items")
-    public ResponseEntity<?> createMenuItem(@Valid @RequestBody MenuItemRequest request, HttpSession session) {
-        // Role-based access control: Only managers can create menu items
-        if (!isManager(session)) {
-            java.util.Map<String, String> errorResponse = new java.util.HashMap<>();
-            errorResponse.put("error", "Unauthorized. Only managers can create menu items.");
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
-        }
-        
+    public ResponseEntity<?> createMenuItem(@Valid @RequestBody MenuItemRequest request) {
         MenuItemResponse response = menuItemService.createMenuItem(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
@@ -236,61 +211,44 @@ public class ManagerApiController {
     @PutMapping("/manager/menu-items/{id}")
     public ResponseEntity<?> updateMenuItem(
             @PathVariable Long id,
-            @Valid @RequestBody MenuItemRequest request,
-            HttpSession session) {
-        // Role-based access control: Only managers can update menu items
-        if (!isManager(session)) {
-            java.util.Map<String, String> errorResponse = new java.util.HashMap<>();
-            errorResponse.put("error", "Unauthorized. Only managers can update menu items.");
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
-        }
-        
+            @Valid @RequestBody MenuItemRequest request) {
         MenuItemResponse response = menuItemService.updateMenuItem(id, request);
         return ResponseEntity.ok(response);
     }
 
     // Task 3.3: GET /api/manager/menu-items/{id} - Get single menu item by ID
     @GetMapping("/manager/menu-items/{id}")
-    public ResponseEntity<MenuItemResponse> getMenuItemById(@PathVariable Long id) {
+    public ResponseEntity<MenuItemView> getMenuItemById(@PathVariable Long id) {
         return menuItemService.getMenuItemById(id)
-                .map(menuItem -> ResponseEntity.ok(MenuItemResponse.fromEntity(menuItem)))
+                .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     // Task 3.4: GET /api/manager/menu-items - Get all menu items (active and inactive)
+    // Served from the cached menu snapshot; If-None-Match with the current ETag gets 304
     @GetMapping("/manager/menu-items")
-    public ResponseEntity<List<MenuItemResponse>> getAllMenuItems() {
-        List<MenuItem> menuItems = menuItemService.getAllMenuItems();
-        List<MenuItemResponse> responses = menuItems.stream()
-                .map(MenuItemResponse::fromEntity)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<List<MenuItemView>> getAllMenuItems(WebRequest webRequest) {
+        MenuSnapshot menu = menuItemService.getMenuSnapshot();
+        if (webRequest.checkNotModified(menu.getAllItemsEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(menu.getAllItemsEtag())
+                .body(menu.getAllItems());
     }
 
     // Task 3.5: DELETE /api/manager/menu-items/{id} - Delete menu item
     @DeleteMapping("/manager/menu-items/{id}")
-    public ResponseEntity<?> deleteMenuItem(@PathVariable Long id, HttpSession session) {
-        // Role-based access control: Only managers can delete menu items
-        if (!isManager(session)) {
-            java.util.Map<String, String> errorResponse = new java.util.HashMap<>();
-            errorResponse.put("error", "Unauthorized. Only managers can delete menu items.");
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
-        }
-        
+    public ResponseEntity<?> deleteMenuItem(@PathVariable Long id) {
         menuItemService.deleteMenuItem(id);
         return ResponseEntity.noContent().build();
     }
 
     // Task 8.9: GET /api/managers/order-stats - Get order statistics for manager dashboard
+    // (counts come from the in-memory status counters, no COUNT queries)
     @GetMapping("/managers/order-stats")
-    public ResponseEntity<?> getOrderStats(HttpSession session) {
-        // Role-based access control: Only managers can access order stats
-        if (!isManager(session)) {
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Unauthorized. Only managers can access order statistics.");
-            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
-        }
-
+    public ResponseEntity<?> getOrderStats() {
         try {
             Long pendingCount = orderService.getOrderCountByStatus("Pending");
             Long inProgressCount = orderService.getOrderCountByStatus("In Progress");
@@ -315,4 +273,16 @@ public class ManagerApiController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(errorResponse);
         }
     }
+
+    // GET /api/managers/login-stats - password hash pool load (running, queued, rejected logins)
+    @GetMapping("/managers/login-stats")
+    public ResponseEntity<?> getLoginStats() {
+        return ResponseEntity.ok(passwordHashService.stats());
+    }
+
+    // GET /api/managers/login-throttle-stats - login attempts let through and rejected by the throttle
+    @GetMapping("/managers/login-throttle-stats")
+    public ResponseEntity<?> getLoginThrottleStats() {
+        return ResponseEntity.ok(loginThrottle.stats());
+    }
 }
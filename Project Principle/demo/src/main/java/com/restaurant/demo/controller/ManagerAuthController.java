@@ -3,10 +3,16 @@ package com.restaurant.demo.controller;
 import com.restaurant.demo.dto.ManagerLoginDto;
 import com.restaurant.demo.dto.ManagerRegistrationDto;
 import com.restaurant.demo.exception.InvalidManagerCredentialsException;
+import com.restaurant.demo.exception.LoginThrottledException;
 import com.restaurant.demo.exception.ManagerAlreadyExistsException;
+import com.restaurant.demo.exception.ServiceBusyException;
 import com.restaurant.demo.model.Manager;
 import com.restaurant.demo.service.ManagerService;
-import jakarta.servlet.http.HttpSession;
+import com.restaurant.demo.service.auth.AuthPrincipal;
+import com.restaurant.demo.service.auth.AuthTokenService;
+import com.restaurant.demo.service.auth.LoginThrottle;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,9 +31,14 @@ public class ManagerAuthController {
     private static final Logger logger = LoggerFactory.getLogger(ManagerAuthController.class);
 
     private final ManagerService managerService;
+    private final AuthTokenService authTokenService;
+    private final LoginThrottle loginThrottle;
 
-    public ManagerAuthController(ManagerService managerService) {
+    public ManagerAuthController(ManagerService managerService, AuthTokenService authTokenService,
+                                 LoginThrottle loginThrottle) {
         this.managerService = managerService;
+        this.authTokenService = authTokenService;
+        this.loginThrottle = loginThrottle;
     }
 
     /**
@@ -121,7 +132,8 @@ public class ManagerAuthController {
      * 
      * @param loginDto DTO containing login credentials
      * @param bindingResult Validation results
-     * @param session HTTP session
+     * @param request Request the client address is taken from (login throttling)
+     * @param response Response the auth cookie is written to
      * @param model Model to add attributes
      * @return View name or redirect path
      */
@@ -129,11 +141,11 @@ public class ManagerAuthController {
     public String processLogin(
             @Valid @ModelAttribute("managerLoginDto") ManagerLoginDto loginDto,
             BindingResult bindingResult,
-            HttpSession session,
+            HttpServletRequest request,
+            HttpServletResponse response,
             Model model) {
 
-        logger.info("Processing manager login for email: {}, sessionId: {}", 
-            loginDto.getEmail(), session.getId());
+        logger.info("Processing manager login for email: {}", loginDto.getEmail());
 
         // Check for validation errors
         if (bindingResult.hasErrors()) {
@@ -142,6 +154,9 @@ public class ManagerAuthController {
         }
 
         try {
+            // Throttle per client IP and email before the password is checked
+            loginThrottle.acquire(loginDto.getEmail(), request.getRemoteAddr());
+
             // Call managerService.authenticateManager()
             Optional<Manager> managerOpt = managerService.authenticateManager(
                 loginDto.getEmail(), 
@@ -149,6 +164,7 @@ public class ManagerAuthController {
             );
 
             if (managerOpt.isEmpty()) {
+                loginThrottle.recordFailure(loginDto.getEmail(), request.getRemoteAddr());
                 // If authentication fails, add error message and return to login form
                 model.addAttribute("error", "Invalid email or password");
                 logger.warn("Login failed - invalid credentials for email: {}", loginDto.getEmail());
@@ -157,24 +173,31 @@ public class ManagerAuthController {
 
             Manager manager = managerOpt.get();
 
-            // If successful, store manager data in session
-            session.setAttribute("managerId", manager.getId());
-            session.setAttribute("managerUsername", manager.getUsername());
-            session.setAttribute("managerEmail", manager.getEmail());
-            session.setAttribute("managerAuthenticated", true);
+            // If successful, issue the signed auth cookie
+            authTokenService.issueCookie(response, AuthPrincipal.Role.MANAGER, manager.getId(), manager.getUsername());
 
-            logger.info("Login successful - managerId: {}, username: {}, sessionId: {}", 
-                manager.getId(), manager.getUsername(), session.getId());
+            logger.info("Login successful - managerId: {}, username: {}", 
+                manager.getId(), manager.getUsername());
 
             // Redirect to manager dashboard
             return "redirect:/manager";
 
         } catch (InvalidManagerCredentialsException e) {
+            loginThrottle.recordFailure(loginDto.getEmail(), request.getRemoteAddr());
             // If authentication fails, add error message and return to login form
             model.addAttribute("error", e.getMessage());
             logger.warn("Login failed - invalid credentials: {}", e.getMessage());
             return "manager-login";
 
+        } catch (LoginThrottledException e) {
+            model.addAttribute("error", e.getMessage());
+            logger.warn("Login throttled for email: {}", loginDto.getEmail());
+            return "manager-login";
+
+        } catch (ServiceBusyException e) {
+            model.addAttribute("error", e.getMessage());
+            return "manager-login";
+
         } catch (Exception e) {
             // Catch unexpected errors
             model.addAttribute("error", "An unexpected error occurred. Please try again.");
@@ -184,34 +207,34 @@ public class ManagerAuthController {
     }
 
     /**
-     * Logout manager and invalidate session (GET method for direct access)
+     * Logout manager and clear the auth cookie (GET method for direct access)
      * 
-     * @param session HTTP session
+     * @param response Response the expired auth cookie is written to
      * @return Redirect to login page
      */
     @GetMapping("/logout")
-    public String logout(HttpSession session) {
-        logger.info("Manager logout - sessionId: {}", session.getId());
+    public String logout(HttpServletResponse response) {
+        logger.info("Manager logout");
         
-        // Invalidate session
-        session.invalidate();
+        // Expire the auth token cookie
+        authTokenService.clearCookie(response);
         
         // Redirect to login page
         return "redirect:/manager/login";
     }
 
     /**
-     * Logout manager and invalidate session (POST method for form submission)
+     * Logout manager and clear the auth cookie (POST method for form submission)
      * 
-     * @param session HTTP session
+     * @param response Response the expired auth cookie is written to
      * @return Redirect to login page
      */
     @PostMapping("/logout")
-    public String logoutPost(HttpSession session) {
-        logger.info("Manager logout (POST) - sessionId: {}", session.getId());
+    public String logoutPost(HttpServletResponse response) {
+        logger.info("Manager logout (POST)");
         
-        // Invalidate session
-        session.invalidate();
+        // Expire the auth token cookie
+        authTokenService.clearCookie(response);
         
         // Redirect to login page
         return "redirect:/manager/login";
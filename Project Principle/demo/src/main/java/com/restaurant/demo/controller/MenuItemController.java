@@ -2,6 +2,8 @@ package com.restaurant.demo.controller;
 
 import java.util.List;
 
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -9,9 +11,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.restaurant.demo.model.MenuItem;
 import com.restaurant.demo.service.MenuItemService;
+import com.restaurant.demo.service.menu.MenuItemView;
+import com.restaurant.demo.service.menu.MenuSnapshot;
 
 @RestController
 @RequestMapping("/api/menuItems")
@@ -24,9 +29,17 @@ public class MenuItemController {
     }
 
     // Customer เห็นเมนูที่แสดงในระบบ (active=true)
+    // เมนูไม่เปลี่ยน → 304 Not Modified
     @GetMapping
-    public List<MenuItem> getActiveMenuItems() {
-        return menuItemService.getActiveMenuItems();
+    public ResponseEntity<List<MenuItemView>> getActiveMenuItems(WebRequest webRequest) {
+        MenuSnapshot menu = menuItemService.getMenuSnapshot();
+        if (webRequest.checkNotModified(menu.getActiveItemsEtag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(menu.getActiveItemsEtag())
+                .body(menu.getActiveItems());
     }
 
     @PostMapping
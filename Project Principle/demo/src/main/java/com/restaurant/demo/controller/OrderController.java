@@ -1,7 +1,9 @@
 package com.restaurant.demo.controller;
 
+import com.restaurant.demo.dto.OrderPageDto;
 import com.restaurant.demo.dto.OrderResponseDto;
 import com.restaurant.demo.service.OrderService;
+import com.restaurant.demo.service.order.PlaceOrderIdempotencyStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -10,8 +12,11 @@ import org.springframework.web.bind.annotation.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 
 /**
@@ -29,11 +34,16 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private PlaceOrderIdempotencyStore idempotencyStore;
+
     /**
      * Place an order for a customer
      * Converts cart items to pending orders
+     * Requests repeating an Idempotency-Key get the first response back instead of a second order
      * 
      * @param customerId The ID of the customer placing the order
+     * @param idempotencyKey Optional client-chosen key for this checkout
      * @return ResponseEntity containing OrderResponseDto with order details
      */
     @PostMapping("/customers/{customerId}/place-order")
@@ -41,12 +51,15 @@ public class OrderController {
             @PathVariable 
             @NotNull(message = "Customer ID is required") 
             @Positive(message = "Customer ID must be positive") Long customerId,
-            @RequestParam(required = false) Long employeeId) { // employeeId ส่งมาหรือไม่ก็ได้
+            @RequestParam(required = false) Long employeeId, // employeeId ส่งมาหรือไม่ก็ได้
+            @RequestHeader(name = PlaceOrderIdempotencyStore.HEADER, required = false)
+            @Size(max = 100, message = "Idempotency-Key must not exceed 100 characters") String idempotencyKey) {
 
         logger.info("Placing order for customer ID: {}, employee ID: {}", customerId, employeeId);
 
-        // เรียก service แบบสองพารามิเตอร์
-        OrderResponseDto orderResponse = orderService.placeOrder(customerId, employeeId);
+        // เรียก service แบบสองพารามิเตอร์ ครั้งเดียวต่อ Idempotency-Key
+        OrderResponseDto orderResponse = idempotencyStore.placeOnce(customerId, idempotencyKey,
+                () -> orderService.placeOrder(customerId, employeeId));
 
         logger.info("Order placed successfully for customer ID: {}, Total: {}", customerId, orderResponse.getTotalPrice());
 
@@ -74,21 +87,38 @@ public class OrderController {
     }
 
     /**
-     * Get all orders for a customer (all statuses)
+     * Get order history for a customer (all statuses), newest first
+     * Without limit or cursor the whole history is returned, as before; with either one the
+     * listing is keyset-paginated and the cursor for the next page is returned in the X-Next-Cursor header
      * 
      * @param customerId The ID of the customer
-     * @return ResponseEntity containing list of all customer orders
+     * @param limit Maximum number of orders to return (1-200, default 50 once paginating)
+     * @param cursor Cursor from the previous page's X-Next-Cursor header
+     * @return ResponseEntity containing list of customer orders
      */
     @GetMapping("/customers/{customerId}/orders")
     public ResponseEntity<List<OrderResponseDto>> getAllOrders(
-            @PathVariable @NotNull(message = "Customer ID is required") @Positive(message = "Customer ID must be positive") Long customerId) {
+            @PathVariable @NotNull(message = "Customer ID is required") @Positive(message = "Customer ID must be positive") Long customerId,
+            @RequestParam(required = false) @Min(value = 1, message = "Limit must be at least 1") @Max(value = 200, message = "Limit must not exceed 200") Integer limit,
+            @RequestParam(required = false) String cursor) {
+        
+        logger.info("Fetching orders for customer ID: {}, limit: {}", customerId, limit);
         
-        logger.info("Fetching all orders for customer ID: {}", customerId);
+        if (limit == null && cursor == null) {
+            List<OrderResponseDto> orders = orderService.getOrdersByCustomerId(customerId);
+            logger.info("Fetched {} orders for customer ID: {}", orders.size(), customerId);
+            return new ResponseEntity<>(orders, HttpStatus.OK);
+        }
         
-        List<OrderResponseDto> orders = orderService.getOrdersByCustomerId(customerId);
+        OrderPageDto page = orderService.getOrdersByCustomerIdPage(
+                customerId, cursor, limit != null ? limit : OrderPageDto.DEFAULT_LIMIT);
         
-        logger.info("Fetched {} orders for customer ID: {}", orders.size(), customerId);
+        logger.info("Fetched {} orders for customer ID: {}, hasMore: {}", page.getOrders().size(), customerId, page.isHasMore());
         
-        return new ResponseEntity<>(orders, HttpStatus.OK);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(OrderPageDto.NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getOrders());
     }
 }
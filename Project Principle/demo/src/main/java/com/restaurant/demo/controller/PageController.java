@@ -3,17 +3,20 @@ package com.restaurant.demo.controller;
 import com.restaurant.demo.dto.CustomerRegistrationDto;
 import com.restaurant.demo.model.Customer;
 import com.restaurant.demo.service.CustomerService;
+import com.restaurant.demo.service.auth.AuthPrincipal;
+import com.restaurant.demo.service.auth.AuthTokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import jakarta.servlet.http.HttpSession;
+import jakarta.servlet.http.HttpServletResponse;
 import java.util.Optional;
 
 @Controller
@@ -24,6 +27,9 @@ public class PageController {
     @Autowired
     private CustomerService customerService;
 
+    @Autowired
+    private AuthTokenService authTokenService;
+
     @GetMapping("/")
     public String index() {
         return "index";
@@ -84,26 +90,26 @@ public class PageController {
     }
 
     /**
-     * Customer-specific page endpoint with session validation
+     * Customer-specific page endpoint with auth token validation
      * Displays personalized customer page based on customer ID in URL
      * 
      * @param customerId The customer ID from URL path variable
      * @param model Model to pass data to Thymeleaf template
-     * @param session HttpSession for server-side session validation
+     * @param principal Caller from the verified auth token, null if not logged in
      * @return View name for Thymeleaf or redirect to login on error
      */
     @GetMapping("/customer/{customerId}")
-    public String customerPage(@PathVariable Long customerId, Model model, HttpSession session) {
-        logger.info("Customer page requested for customerId: {}, sessionId: {}", customerId, session.getId());
+    public String customerPage(@PathVariable Long customerId, Model model,
+                               @RequestAttribute(name = AuthPrincipal.REQUEST_ATTRIBUTE, required = false) AuthPrincipal principal) {
+        logger.info("Customer page requested for customerId: {}", customerId);
         
-        // Session validation: Check if session contains customer ID
-        Long sessionCustomerId = (Long) session.getAttribute("customerId");
-        logger.info("Session customerId: {}", sessionCustomerId);
+        // Token validation: the caller must be logged in as this customer
+        Long tokenCustomerId = principal != null && principal.is(AuthPrincipal.Role.CUSTOMER) ? principal.id() : null;
         
-        // If no session exists or customer ID doesn't match, redirect to home page with error
-        if (sessionCustomerId == null || !sessionCustomerId.equals(customerId)) {
-            logger.warn("Session validation failed - sessionCustomerId: {}, requestedCustomerId: {}", 
-                sessionCustomerId, customerId);
+        // If not logged in or customer ID doesn't match, redirect to home page with error
+        if (tokenCustomerId == null || !tokenCustomerId.equals(customerId)) {
+            logger.warn("Token validation failed - tokenCustomerId: {}, requestedCustomerId: {}", 
+                tokenCustomerId, customerId);
             return "redirect:/?error=unauthorized";
         }
         
@@ -131,33 +137,30 @@ public class PageController {
     }
 
     /**
-     * Customer orders page endpoint with session validation
+     * Customer orders page endpoint with auth token validation
      * Displays customer's pending orders
      * 
      * @param model Model to pass data to Thymeleaf template
-     * @param session HttpSession for server-side session validation
+     * @param principal Caller from the verified auth token, null if not logged in
      * @return View name for Thymeleaf or redirect to login on error
      */
     @GetMapping("/customer-orders")
-    public String customerOrders(Model model, HttpSession session) {
-        logger.info("Customer orders page requested, sessionId: {}", session.getId());
-        
-        // Session validation: Check if session contains customer ID
-        Long sessionCustomerId = (Long) session.getAttribute("customerId");
-        logger.info("Session customerId: {}", sessionCustomerId);
-        
-        // If no session exists, redirect to login page
-        if (sessionCustomerId == null) {
-            logger.warn("Session validation failed - no customerId in session");
+    public String customerOrders(Model model,
+                                 @RequestAttribute(name = AuthPrincipal.REQUEST_ATTRIBUTE, required = false) AuthPrincipal principal) {
+        // Token validation: the caller must be logged in as a customer
+        if (principal == null || !principal.is(AuthPrincipal.Role.CUSTOMER)) {
+            logger.warn("Token validation failed - no customer token");
             return "redirect:/login?error=unauthorized";
         }
+        Long tokenCustomerId = principal.id();
+        logger.info("Customer orders page requested, customerId: {}", tokenCustomerId);
         
         // Fetch customer data from database using customer service
-        Optional<Customer> customerOpt = customerService.findCustomerById(sessionCustomerId);
+        Optional<Customer> customerOpt = customerService.findCustomerById(tokenCustomerId);
         
         // Handle case when customer is not found in database
         if (customerOpt.isEmpty()) {
-            logger.warn("Customer not found in database for customerId: {}", sessionCustomerId);
+            logger.warn("Customer not found in database for customerId: {}", tokenCustomerId);
             return "redirect:/login?error=notfound";
         }
         
@@ -176,48 +179,42 @@ public class PageController {
     }
 
     /**
-     * Employee orders page endpoint with session validation
+     * Employee orders page endpoint with auth token validation
      * Displays order management interface for employees
      * 
      * @param model Model to pass data to Thymeleaf template
-     * @param session HttpSession for server-side session validation
+     * @param principal Caller from the verified auth token, null if not logged in
      * @return View name for Thymeleaf or redirect to login on error
      */
     @GetMapping("/employee-orders")
-    public String employeeOrders(Model model, HttpSession session) {
-        logger.info("Employee orders page requested, sessionId: {}", session.getId());
-        
-        // Session validation: Check if session contains employee ID
-        Long sessionEmployeeId = (Long) session.getAttribute("employeeId");
-        logger.info("Session employeeId: {}", sessionEmployeeId);
-        
-        // If no session exists, redirect to employee login page
-        if (sessionEmployeeId == null) {
-            logger.warn("Session validation failed - no employeeId in session");
+    public String employeeOrders(Model model,
+                                 @RequestAttribute(name = AuthPrincipal.REQUEST_ATTRIBUTE, required = false) AuthPrincipal principal) {
+        // Token validation: the caller must be logged in as an employee
+        if (principal == null || !principal.is(AuthPrincipal.Role.EMPLOYEE)) {
+            logger.warn("Token validation failed - no employee token");
             return "redirect:/employee-login?error=unauthorized";
         }
+        Long tokenEmployeeId = principal.id();
         
-        logger.info("Employee orders page loaded successfully for employeeId: {}", sessionEmployeeId);
+        logger.info("Employee orders page loaded successfully for employeeId: {}", tokenEmployeeId);
         
         // Add employee ID to model for Thymeleaf template rendering
-        model.addAttribute("employeeId", sessionEmployeeId);
+        model.addAttribute("employeeId", tokenEmployeeId);
         
         // Return "employee-orders" view name for Thymeleaf rendering
         return "employee-orders";
     }
 
     @GetMapping("/manager")
-    public String manager(HttpSession session) {
+    public String manager(@RequestAttribute(name = AuthPrincipal.REQUEST_ATTRIBUTE, required = false) AuthPrincipal principal) {
         // Check if employee is trying to access manager page (should be blocked)
-        Boolean isEmployeeAuthenticated = (Boolean) session.getAttribute("employeeAuthenticated");
-        if (isEmployeeAuthenticated != null && isEmployeeAuthenticated) {
+        if (principal != null && principal.is(AuthPrincipal.Role.EMPLOYEE)) {
             logger.warn("Employee attempted to access manager page - access denied");
             return "redirect:/employee-orders?error=unauthorized";
         }
         
-        // Check if manager is authenticated via session
-        Boolean isAuthenticated = (Boolean) session.getAttribute("managerAuthenticated");
-        if (isAuthenticated == null || !isAuthenticated) {
+        // Check if manager is authenticated via the auth token
+        if (principal == null || !principal.is(AuthPrincipal.Role.MANAGER)) {
             // If not authenticated, redirect to login page
             return "redirect:/manager/login";
         }
@@ -225,17 +222,15 @@ public class PageController {
     }
 
     /**
-     * Logout endpoint that clears the HttpSession and redirects to index page
+     * Logout endpoint that clears the auth cookie and redirects to index page
      * 
-     * @param session HttpSession to be invalidated
+     * @param response Response the expired auth cookie is written to
      * @return Redirect to index page
      */
     @PostMapping("/logout")
-    public String logout(HttpSession session) {
-        // Invalidate the current session to clear all session attributes
-        if (session != null) {
-            session.invalidate();
-        }
+    public String logout(HttpServletResponse response) {
+        // Expire the auth token cookie so the browser stops sending it
+        authTokenService.clearCookie(response);
         
         // Redirect to index page after logout
         return "redirect:/";
@@ -0,0 +1,32 @@
+package com.restaurant.demo.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Everything the cart sidebar renders in one response: lines, total and the badge count.
+ */
+public class CartSummaryDto {
+
+    private List<CartItemDto> items;
+    private BigDecimal total;
+    private int itemCount;
+
+    public CartSummaryDto() {}
+
+    public CartSummaryDto(List<CartItemDto> items, BigDecimal total, int itemCount) {
+        this.items = items;
+        this.total = total;
+        this.itemCount = itemCount;
+    }
+
+    public List<CartItemDto> getItems() { return items; }
+    public void setItems(List<CartItemDto> items) { this.items = items; }
+
+    public BigDecimal getTotal() { return total; }
+    public void setTotal(BigDecimal total) { this.total = total; }
+
+    // จำนวนชิ้นรวม (ผลรวม quantity) สำหรับ badge บนปุ่มตะกร้า
+    public int getItemCount() { return itemCount; }
+    public void setItemCount(int itemCount) { this.itemCount = itemCount; }
+}
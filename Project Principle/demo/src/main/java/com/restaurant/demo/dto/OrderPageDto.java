@@ -0,0 +1,34 @@
+package com.restaurant.demo.dto;
+
+import java.util.List;
+
+/**
+ * One page of orders from a keyset-paginated listing.
+ * nextCursor is null when there are no more orders.
+ */
+public class OrderPageDto {
+
+    // Response header carrying the cursor for list endpoints that keep a plain JSON array body
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    // Page size when a cursor is sent without a limit
+    public static final int DEFAULT_LIMIT = 50;
+
+    private List<OrderResponseDto> orders;
+    private String nextCursor;
+
+    public OrderPageDto() {}
+
+    public OrderPageDto(List<OrderResponseDto> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<OrderResponseDto> getOrders() { return orders; }
+    public void setOrders(List<OrderResponseDto> orders) { this.orders = orders; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return nextCursor != null; }
+}
@@ -0,0 +1,13 @@
+package com.restaurant.demo.exception;
+
+public class CartCheckoutInProgressException extends RuntimeException {
+
+    public CartCheckoutInProgressException(String message) {
+        super(message);
+    }
+
+    public static CartCheckoutInProgressException forCustomer(Long customerId) {
+        return new CartCheckoutInProgressException(
+                "The cart of customer " + customerId + " is being checked out, please reload it and try again");
+    }
+}
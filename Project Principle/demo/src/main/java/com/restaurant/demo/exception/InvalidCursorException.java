@@ -0,0 +1,11 @@
+package com.restaurant.demo.exception;
+
+/**
+ * A pagination cursor sent by the client could not be decoded
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String cursor) {
+        super("Invalid cursor: " + cursor);
+    }
+}
@@ -0,0 +1,19 @@
+package com.restaurant.demo.exception;
+
+public class LoginThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public static LoginThrottledException forLogin(long retryAfterSeconds) {
+        return new LoginThrottledException("Too many login attempts, please try again later", retryAfterSeconds);
+    }
+}
@@ -0,0 +1,13 @@
+package com.restaurant.demo.exception;
+
+public class OrderStatusConflictException extends RuntimeException {
+
+    public OrderStatusConflictException(String message) {
+        super(message);
+    }
+
+    public static OrderStatusConflictException forTransition(String currentStatus, String newStatus) {
+        return new OrderStatusConflictException(
+                String.format("Invalid status transition from %s to %s", currentStatus, newStatus));
+    }
+}
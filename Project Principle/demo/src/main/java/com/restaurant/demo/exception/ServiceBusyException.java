@@ -0,0 +1,20 @@
+package com.restaurant.demo.exception;
+
+public class ServiceBusyException extends RuntimeException {
+
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+
+    public ServiceBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public static ServiceBusyException forLogin() {
+        return new ServiceBusyException("Too many logins in progress, please try again in a moment");
+    }
+
+    public static ServiceBusyException forReport() {
+        return new ServiceBusyException("The report is taking too long to prepare, please try again in a moment");
+    }
+}
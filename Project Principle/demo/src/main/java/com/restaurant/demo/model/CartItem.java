@@ -19,6 +19,10 @@ public class CartItem {
     public static final String STATUS_FINISH = "Finish";
     public static final String STATUS_ORDERED = "Ordered";
 
+    private static final String[] STATUSES = {
+            STATUS_PENDING, STATUS_IN_PROGRESS, STATUS_CANCELLED, STATUS_FINISH, STATUS_ORDERED
+    };
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -90,7 +94,7 @@ public class CartItem {
         this.itemName = itemName;
         this.itemPrice = itemPrice;
         this.quantity = quantity;
-        this.status = status != null ? status : STATUS_PENDING; // ใช้ constant
+        this.status = status != null ? canonicalStatus(status) : STATUS_PENDING; // ใช้ constant
     }
 
     @PrePersist
@@ -107,6 +111,22 @@ public class CartItem {
         updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Map any casing of a status to its canonical constant (e.g. "pending" -> "Pending").
+     * Unknown values are returned unchanged so validation can reject them.
+     */
+    public static String canonicalStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        for (String candidate : STATUSES) {
+            if (candidate.equalsIgnoreCase(status.trim())) {
+                return candidate;
+            }
+        }
+        return status;
+    }
+
     // Calculated field for total price
     public BigDecimal getTotalPrice() {
         if (itemPrice != null && quantity != null) {
@@ -161,7 +181,7 @@ public class CartItem {
     }
 
     public void setStatus(String status) {
-        this.status = status;
+        this.status = canonicalStatus(status);
     }
 
     public LocalDateTime getCreatedAt() {
@@ -26,8 +26,9 @@ public class Order {
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems = new ArrayList<>();
 
+    @Convert(converter = OrderStatusConverter.class)
     @Column(nullable = false, length = 20)
-    private String status = "Pending";
+    private OrderStatus status = OrderStatus.PENDING;
 
     @Column(name = "total_amount", nullable = false, precision = 10, scale = 2)
     private BigDecimal totalAmount = BigDecimal.ZERO;
@@ -85,8 +86,12 @@ public class Order {
         this.orderItems = orderItems;
     }
 
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    // String accessors keep the display value ("In Progress") used by DTOs and the frontend
+    public String getStatus() { return status != null ? status.getValue() : null; }
+    public void setStatus(String status) { this.status = OrderStatus.fromValue(status); }
+
+    public OrderStatus getOrderStatus() { return status; }
+    public void setOrderStatus(OrderStatus status) { this.status = status; }
 
     public BigDecimal getTotalAmount() { 
         return totalAmount; 
@@ -8,8 +8,13 @@ import java.time.LocalDateTime;
 @Table(name = "order_items")
 public class OrderItem {
 
+    // Pooled table generator instead of IDENTITY: ids are reserved 50 at a time,
+    // so Hibernate can send all items of an order as one JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_item_ids")
+    @TableGenerator(name = "order_item_ids", table = "id_generators",
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "order_items", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
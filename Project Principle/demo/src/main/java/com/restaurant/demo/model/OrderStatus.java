@@ -1,5 +1,11 @@
 package com.restaurant.demo.model;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Enum representing the possible statuses of an order in the system.
  * This centralizes status strings to avoid hardcoding throughout the codebase.
@@ -10,6 +16,20 @@ public enum OrderStatus {
     FINISH("Finish"),
     CANCELLED("Cancelled");
 
+    private static final Map<OrderStatus, Set<OrderStatus>> PREDECESSORS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        for (OrderStatus target : values()) {
+            EnumSet<OrderStatus> from = EnumSet.noneOf(OrderStatus.class);
+            for (OrderStatus current : values()) {
+                if (isValidTransition(current.value, target.value)) {
+                    from.add(current);
+                }
+            }
+            PREDECESSORS.put(target, Collections.unmodifiableSet(from));
+        }
+    }
+
     private final String value;
 
     OrderStatus(String value) {
@@ -98,6 +118,16 @@ public enum OrderStatus {
         return false;
     }
 
+    /**
+     * Statuses an order may be in to move to the given status, derived from
+     * {@link #isValidTransition(String, String)}
+     * @param target The proposed new status
+     * @return Allowed current statuses (empty if none)
+     */
+    public static Set<OrderStatus> allowedPredecessors(OrderStatus target) {
+        return PREDECESSORS.get(target);
+    }
+
     @Override
     public String toString() {
         return value;
@@ -0,0 +1,23 @@
+package com.restaurant.demo.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores OrderStatus in its canonical display form ("Pending", "In Progress", "Finish", "Cancelled")
+ * so status filters can use plain equality (index range scan) instead of LOWER(status).
+ */
+@Converter
+public class OrderStatusConverter implements AttributeConverter<OrderStatus, String> {
+
+    @Override
+    public String convertToDatabaseColumn(OrderStatus status) {
+        return status != null ? status.getValue() : null;
+    }
+
+    @Override
+    public OrderStatus convertToEntityAttribute(String value) {
+        // fromValue is case-insensitive, so rows written before normalization still load
+        return value != null ? OrderStatus.fromValue(value) : null;
+    }
+}
@@ -1,12 +1,17 @@
 package com.restaurant.demo.repository;
 
+import com.restaurant.demo.dto.CartItemDto;
 import com.restaurant.demo.model.CartItem;
 import com.restaurant.demo.model.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,10 +22,70 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
 
     List<CartItem> findByCustomerAndStatus(Customer customer, String status);
 
+    /**
+     * Cart lines of a customer as DTOs (no entity hydration, no customer/order joins)
+     * @param customerId The customer ID
+     * @return Lines ordered by id, with line total computed in the query
+     */
+    @Query("SELECT new com.restaurant.demo.dto.CartItemDto(c.id, c.customer.id, c.itemName, c.itemPrice, c.quantity, " +
+           "c.itemPrice * c.quantity, c.status, c.createdAt, c.updatedAt) " +
+           "FROM CartItem c WHERE c.customer.id = :customerId ORDER BY c.id")
+    List<CartItemDto> findDtosByCustomerId(@Param("customerId") Long customerId);
+
+    /**
+     * Single cart line as a DTO, looked up by its unique (customer, item, status) key
+     */
+    @Query("SELECT new com.restaurant.demo.dto.CartItemDto(c.id, c.customer.id, c.itemName, c.itemPrice, c.quantity, " +
+           "c.itemPrice * c.quantity, c.status, c.createdAt, c.updatedAt) " +
+           "FROM CartItem c WHERE c.customer.id = :customerId AND c.itemName = :itemName AND c.status = :status")
+    Optional<CartItemDto> findDtoByCustomerIdAndItemNameAndStatus(@Param("customerId") Long customerId,
+                                                                 @Param("itemName") String itemName,
+                                                                 @Param("status") String status);
+
     List<CartItem> findByStatus(String status);
 
-    Optional<CartItem> findByCustomer_IdAndItemName(Long customerId, String itemName);
+    /**
+     * Insert a cart line or add to the existing one in a single statement (quantity capped at 99).
+     * Relies on uk_cart_items_customer_item_status, so concurrent adds of the same item cannot
+     * create duplicate rows. Works on MySQL and on H2 in MySQL mode.
+     * @return Rows affected (1 = inserted, 2 = updated on MySQL)
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO cart_items (customer_id, item_name, item_price, quantity, status, created_at, updated_at) " +
+                   "VALUES (:customerId, :itemName, :itemPrice, :quantity, :status, :now, :now) " +
+                   "ON DUPLICATE KEY UPDATE quantity = LEAST(quantity + :quantity, 99), updated_at = :now",
+           nativeQuery = true)
+    int upsertQuantity(@Param("customerId") Long customerId,
+                       @Param("itemName") String itemName,
+                       @Param("itemPrice") BigDecimal itemPrice,
+                       @Param("quantity") int quantity,
+                       @Param("status") String status,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Bulk delete of a customer's cart rows with the given status in one statement
+     * @return Number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CartItem c WHERE c.customer.id = :customerId AND c.status = :status")
+    int deleteByCustomerIdAndStatus(@Param("customerId") Long customerId, @Param("status") String status);
+
+    /**
+     * Bulk delete of every cart row of a customer in one statement
+     * @return Number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CartItem c WHERE c.customer.id = :customerId")
+    int deleteByCustomerId(@Param("customerId") Long customerId);
 
-    @Query("SELECT c FROM CartItem c WHERE LOWER(c.status) = LOWER(:status)")
-    List<CartItem> findByStatusIgnoreCase(@Param("status") String status);
+    /**
+     * Case-insensitive status lookup. Statuses are stored in canonical form,
+     * so the argument is normalized here and the query stays a plain equality.
+     */
+    default List<CartItem> findByStatusIgnoreCase(String status) {
+        return findByStatus(CartItem.canonicalStatus(status));
+    }
 }
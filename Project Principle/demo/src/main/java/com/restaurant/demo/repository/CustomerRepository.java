@@ -2,18 +2,34 @@ package com.restaurant.demo.repository;
 
 import com.restaurant.demo.model.Customer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    // own read-only transaction: the logins look accounts up outside one and must not keep the connection
+    @Transactional(readOnly = true)
     Optional<Customer> findByUsername(String username);
 
+    @Transactional(readOnly = true)
     Optional<Customer> findByEmail(String email);
 
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    /**
+     * Replace a password hash, only if it is still the one the new hash was derived from
+     * @return Rows affected (0 = the password was changed meanwhile)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Customer c SET c.passwordHash = :newHash WHERE c.id = :id AND c.passwordHash = :oldHash")
+    int updatePasswordHashIf(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
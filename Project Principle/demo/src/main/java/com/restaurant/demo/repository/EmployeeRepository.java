@@ -2,10 +2,26 @@ package com.restaurant.demo.repository;
 
 import com.restaurant.demo.model.Employee;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+    // own read-only transaction: the logins look accounts up outside one and must not keep the connection
+    @Transactional(readOnly = true)
     Optional<Employee> findByUsername(String username);
     boolean existsByUsername(String username);
+
+    /**
+     * Replace a password hash, only if it is still the one the new hash was derived from.
+     * Managers share the employees row (joined inheritance), so this covers them too
+     * @return Rows affected (0 = the password was changed meanwhile)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE employees SET password = :newHash WHERE id = :id AND password = :oldHash", nativeQuery = true)
+    int updatePasswordIf(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
 }
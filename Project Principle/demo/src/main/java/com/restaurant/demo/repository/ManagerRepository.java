@@ -3,12 +3,15 @@ package com.restaurant.demo.repository;
 import com.restaurant.demo.model.Manager;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
 public interface ManagerRepository extends JpaRepository<Manager, Long> {
 
+    // own read-only transaction: the logins look accounts up outside one and must not keep the connection
+    @Transactional(readOnly = true)
     Optional<Manager> findByEmail(String email);
 
     Optional<Manager> findByUsername(String username);
@@ -2,13 +2,21 @@ package com.restaurant.demo.repository;
 
 import com.restaurant.demo.model.Order;
 import com.restaurant.demo.model.Customer;
+import com.restaurant.demo.model.OrderStatus;
+import com.restaurant.demo.service.order.OrderStatusCount;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -25,15 +33,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @param status The order status (Pending, In Progress, Finish, Cancelled)
      * @return List of orders with the specified status
      */
-    List<Order> findByStatus(String status);
-    
-    /**
-     * Find all orders with case-insensitive status matching
-     * @param status The order status
-     * @return List of orders with the specified status
-     */
-    @Query("SELECT o FROM Order o WHERE LOWER(o.status) = LOWER(:status)")
-    List<Order> findByStatusIgnoreCase(@Param("status") String status);
+    List<Order> findByStatus(OrderStatus status);
     
     /**
      * Find all orders sorted by creation date (newest first)
@@ -54,7 +54,7 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @param status The order status
      * @return List of orders matching customer and status
      */
-    List<Order> findByCustomerAndStatus(Customer customer, String status);
+    List<Order> findByCustomerAndStatus(Customer customer, OrderStatus status);
     
     /**
      * Find orders created within a date range
@@ -69,5 +69,123 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @param status The order status
      * @return Count of orders with the specified status
      */
-    long countByStatus(String status);
+    long countByStatus(OrderStatus status);
+
+    /**
+     * Count orders of every status in one statement
+     * @return One row per status that has orders
+     */
+    @Query("SELECT new com.restaurant.demo.service.order.OrderStatusCount(o.status, COUNT(o)) " +
+           "FROM Order o GROUP BY o.status")
+    List<OrderStatusCount> countGroupedByStatus();
+
+    /**
+     * Current status of an order, locking the row until the transaction ends (SELECT ... FOR UPDATE).
+     * A locking read sees the latest committed status even under REPEATABLE READ, and no other
+     * transaction can change the status before this one commits
+     * @param orderId The order ID
+     * @return Optional containing the status if the order exists
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o.status FROM Order o WHERE o.id = :orderId")
+    Optional<OrderStatus> lockStatusById(@Param("orderId") Long orderId);
+
+    /**
+     * Change an order's status in one statement, only if its current status is one of the expected ones.
+     * The persistence context is flushed before and cleared after, so later reads see the new status.
+     * @param orderId The order ID
+     * @param newStatus The new status
+     * @param updatedAt New updated_at value
+     * @param expected Statuses the order may currently be in
+     * @return Rows affected (0 = order missing or not in an expected status)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :newStatus, o.updatedAt = :updatedAt " +
+           "WHERE o.id = :orderId AND o.status IN :expected")
+    int updateStatusIfIn(@Param("orderId") Long orderId,
+                         @Param("newStatus") OrderStatus newStatus,
+                         @Param("updatedAt") LocalDateTime updatedAt,
+                         @Param("expected") Set<OrderStatus> expected);
+
+    // ===== Fetch-join queries (avoid N+1 when mapping to OrderResponseDto) =====
+
+    /**
+     * Find orders by status with customer, employee and items loaded in one statement
+     * @param status The order status
+     * @return List of orders, newest first
+     */
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer LEFT JOIN FETCH o.employee LEFT JOIN FETCH o.orderItems " +
+           "WHERE o.status = :status ORDER BY o.createdAt DESC")
+    List<Order> findWithItemsByStatus(@Param("status") OrderStatus status);
+
+    /**
+     * Find all orders for a customer with customer, employee and items loaded in one statement
+     * @param customerId The customer ID
+     * @return List of orders, newest first
+     */
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer LEFT JOIN FETCH o.employee LEFT JOIN FETCH o.orderItems " +
+           "WHERE o.customer.id = :customerId ORDER BY o.createdAt DESC")
+    List<Order> findWithItemsByCustomerId(@Param("customerId") Long customerId);
+
+    /**
+     * Find orders for a customer with a specific status, with items loaded in one statement
+     * @param customerId The customer ID
+     * @param status The order status
+     * @return List of orders, newest first
+     */
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer LEFT JOIN FETCH o.employee LEFT JOIN FETCH o.orderItems " +
+           "WHERE o.customer.id = :customerId AND o.status = :status ORDER BY o.createdAt DESC")
+    List<Order> findWithItemsByCustomerIdAndStatus(@Param("customerId") Long customerId, @Param("status") OrderStatus status);
+
+    /**
+     * Find a single order with customer, employee and items loaded in one statement
+     * @param orderId The order ID
+     * @return Optional containing the order if found
+     */
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer LEFT JOIN FETCH o.employee LEFT JOIN FETCH o.orderItems " +
+           "WHERE o.id = :orderId")
+    Optional<Order> findWithItemsById(@Param("orderId") Long orderId);
+
+    /**
+     * Find orders by IDs with customer, employee and items loaded in one statement
+     * @param ids The order IDs (typically one page from a keyset query)
+     * @return List of orders, newest first
+     */
+    @Query("SELECT o FROM Order o JOIN FETCH o.customer LEFT JOIN FETCH o.employee LEFT JOIN FETCH o.orderItems " +
+           "WHERE o.id IN :ids ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findWithItemsByIdIn(@Param("ids") List<Long> ids);
+
+    // ===== Keyset pagination on (created_at, id) =====
+
+    /**
+     * Find IDs of orders with a status, older than the given (createdAt, id) cursor
+     * @param status The order status
+     * @param createdAt Cursor creation time
+     * @param id Cursor order ID
+     * @param limit Maximum number of IDs to return
+     * @return Order IDs, newest first
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.status = :status " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findIdsByStatusBefore(@Param("status") OrderStatus status,
+                                     @Param("createdAt") LocalDateTime createdAt,
+                                     @Param("id") Long id,
+                                     Limit limit);
+
+    /**
+     * Find IDs of a customer's orders older than the given (createdAt, id) cursor
+     * @param customerId The customer ID
+     * @param createdAt Cursor creation time
+     * @param id Cursor order ID
+     * @param limit Maximum number of IDs to return
+     * @return Order IDs, newest first
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.customer.id = :customerId " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    List<Long> findIdsByCustomerIdBefore(@Param("customerId") Long customerId,
+                                         @Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id,
+                                         Limit limit);
 }
@@ -1,15 +1,16 @@
 package com.restaurant.demo.service;
 
 import com.restaurant.demo.dto.CartItemDto;
+import com.restaurant.demo.dto.CartSummaryDto;
 import com.restaurant.demo.model.CartItem;
 import com.restaurant.demo.model.Customer;
 import com.restaurant.demo.model.MenuItem;
 import com.restaurant.demo.repository.CartItemRepository;
-import com.restaurant.demo.repository.CustomerRepository;
 import com.restaurant.demo.repository.MenuItemRepo;
+import com.restaurant.demo.service.cart.CartStore;
+import com.restaurant.demo.service.customer.CustomerIdentityCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -23,18 +24,18 @@ public class CartService {
     private CartItemRepository cartItemRepository;
 
     @Autowired
-    private CustomerRepository customerRepository;
+    private MenuItemRepo menuItemRepository;
 
+    // ตะกร้าที่ใช้งานอยู่ถูกเก็บในหน่วยความจำ แล้วค่อยเขียนจำนวนลง cart_items เป็นรอบ ๆ
     @Autowired
-    private MenuItemRepo menuItemRepository;
+    private CartStore cartStore;
+
+    @Autowired
+    private CustomerIdentityCache customerIdentityCache;
 
-    // Helper method to get customer by ID
+    // Helper method to get customer by ID (no customers SELECT once the id has been seen)
     private Customer getCustomerById(Long customerId) {
-        if (customerId == null) {
-            throw new RuntimeException("Customer ID is required");
-        }
-        return customerRepository.findById(customerId)
-                .orElseThrow(() -> new RuntimeException("Customer not found with ID: " + customerId));
+        return customerIdentityCache.get(customerId);
     }
 
     public CartItem addToCart(Long customerId, Long menuItemId, Integer quantity) {
@@ -46,53 +47,51 @@ public class CartService {
         return addToCart(customer, menuItem.getName(), itemPrice, quantity);
     }
 
+    // +/- ในหน้าลูกค้า: แก้ในหน่วยความจำอย่างเดียว ไม่มี round trip ไปฐานข้อมูล
     public CartItem updateCartItemQuantity(Long cartItemId, Long customerId, Integer quantity) {
-        Customer customer = getCustomerById(customerId);
-        return updateQuantity(cartItemId, quantity, customer);
+        if (quantity == null || quantity < 1 || quantity > 99) throw new RuntimeException("Quantity must be between 1 and 99");
+        return cartStore.setQuantity(customerId, cartItemId, quantity);
     }
 
     public void removeFromCart(Long cartItemId, Long customerId) {
-        Customer customer = getCustomerById(customerId);
-        removeFromCart(cartItemId, customer);
+        cartStore.remove(customerId, cartItemId);
     }
 
     public List<CartItem> getCartByCustomer(Customer customer) {
         if (customer == null) {
             throw new RuntimeException("Customer authentication required");
         }
-        return cartItemRepository.findByCustomer(customer);
+        return cartStore.getItems(customer.getId());
     }
 
     public CartItem getCartItem(Long cartItemId, Long customerId) {
-        Customer customer = getCustomerById(customerId);
-        return getCartItem(cartItemId, customer).orElse(null);
+        return cartStore.getItem(customerId, cartItemId);
     }
 
     public void clearCart(Long customerId) {
-        Customer customer = getCustomerById(customerId);
-        clearCart(customer);
+        cartStore.clear(customerId);
     }
 
     public BigDecimal calculateCartTotal(Long customerId) {
-        Customer customer = getCustomerById(customerId);
-        List<CartItem> items = getCartByCustomer(customer);
-        return items.stream()
-                .map(item -> item.getItemPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return cartStore.getTotal(customerId);
+    }
+
+    public CartSummaryDto getCartSummary(Long customerId) {
+        return cartStore.getSummary(customerId);
     }
 
     public List<CartItem> getAllCartItems() {
+        // Reads every customer's rows from the table, so write pending quantities first
+        cartStore.flushDirty();
         return cartItemRepository.findAll();
     }
 
     public List<CartItem> getCartItems(Long customerId) {
-        Customer customer = getCustomerById(customerId);
-        return cartItemRepository.findByCustomer(customer);
+        return cartStore.getItems(customerId);
     }
 
     public List<CartItem> getCartByCustomerId(Long customerId) {
-        Customer customer = getCustomerById(customerId);
-        return cartItemRepository.findByCustomer(customer);
+        return cartStore.getItems(customerId);
     }
 
     public CartItem addToCart(Customer customer, String name, BigDecimal price, int quantity) {
@@ -103,72 +102,45 @@ public class CartService {
             throw new RuntimeException("Quantity must be between 1 and 99");
         }
 
-        Optional<CartItem> existingItem = cartItemRepository.findByCustomer_IdAndItemName(customer.getId(), name);
-
-        if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
-            int newQuantity = Math.min(item.getQuantity() + quantity, 99);
-            item.setQuantity(newQuantity);
-            return cartItemRepository.save(item);
-        } else {
-            CartItem newItem = new CartItem(customer, name, price, quantity);
-            return cartItemRepository.save(newItem);
-        }
+        return cartStore.add(customer.getId(), name, price, quantity);
     }
 
     public CartItem incrementQuantity(Long itemId, Customer customer) {
-        CartItem item = getCartItem(itemId, customer).orElseThrow(() -> new RuntimeException("Cart item not found"));
-        int newQuantity = item.getQuantity() + 1;
-        if (newQuantity > 99) throw new RuntimeException("Quantity cannot exceed 99");
-        item.setQuantity(newQuantity);
-        return cartItemRepository.save(item);
+        return cartStore.adjustQuantity(customer.getId(), itemId, 1);
     }
 
     public CartItem decrementQuantity(Long itemId, Customer customer) {
-        CartItem item = getCartItem(itemId, customer).orElseThrow(() -> new RuntimeException("Cart item not found"));
-        if (item.getQuantity() <= 1) throw new RuntimeException("Quantity cannot be less than 1");
-        item.setQuantity(item.getQuantity() - 1);
-        return cartItemRepository.save(item);
+        return cartStore.adjustQuantity(customer.getId(), itemId, -1);
     }
 
     public CartItem updateQuantity(Long itemId, int quantity, Customer customer) {
         if (quantity < 1 || quantity > 99) throw new RuntimeException("Quantity must be between 1 and 99");
-        CartItem item = getCartItem(itemId, customer).orElseThrow(() -> new RuntimeException("Cart item not found"));
-        item.setQuantity(quantity);
-        return cartItemRepository.save(item);
+        return cartStore.setQuantity(customer.getId(), itemId, quantity);
     }
 
     public void removeFromCart(Long itemId, Customer customer) {
-        CartItem item = getCartItem(itemId, customer).orElseThrow(() -> new RuntimeException("Cart item not found"));
-        cartItemRepository.delete(item);
+        cartStore.remove(customer.getId(), itemId);
     }
 
     public void clearCart(Customer customer) {
-        List<CartItem> items = cartItemRepository.findByCustomer(customer);
-        cartItemRepository.deleteAll(items);
+        cartStore.clear(customer.getId());
     }
 
     public Optional<CartItem> getCartItem(Long itemId, Customer customer) {
-        Optional<CartItem> optionalItem = cartItemRepository.findById(itemId);
-        optionalItem.ifPresent(item -> {
-            if (!item.getCustomer().getId().equals(customer.getId())) {
-                throw new RuntimeException("Access denied: Item does not belong to customer");
-            }
-        });
-        return optionalItem;
+        return Optional.ofNullable(cartStore.getItem(customer.getId(), itemId));
     }
 
     public CartItem updateCartItem(CartItem cartItem, Customer customer) {
         if (cartItem.getId() != null) {
-            Optional<CartItem> existingItem = cartItemRepository.findById(cartItem.getId());
-            existingItem.ifPresent(item -> {
-                if (!item.getCustomer().getId().equals(customer.getId())) {
-                    throw new RuntimeException("Access denied: Item does not belong to customer");
-                }
-            });
+            // throws if the item belongs to another customer
+            cartStore.getItem(customer.getId(), cartItem.getId());
         }
+        // Whole-entity save goes straight to the table; reload the cached cart afterwards
+        cartStore.flush(customer.getId());
         cartItem.setCustomer(customer);
-        return cartItemRepository.save(cartItem);
+        CartItem saved = cartItemRepository.save(cartItem);
+        cartStore.evict(customer.getId());
+        return saved;
     }
 
     public CartItemDto toDto(CartItem item) {
@@ -188,22 +160,4 @@ public class CartService {
     public List<CartItemDto> toDtoList(List<CartItem> items) {
         return items.stream().map(this::toDto).collect(Collectors.toList());
     }
-
-    // ------------------ Status Methods ------------------
-    @Transactional
-    public void finishCart(Long customerId) {
-        Customer customer = getCustomerById(customerId);
-        List<CartItem> items = cartItemRepository.findByCustomerAndStatus(customer, CartItem.STATUS_PENDING);
-        if (items.isEmpty()) throw new RuntimeException("Cart is empty. Cannot place order.");
-        items.forEach(item -> item.setStatus(CartItem.STATUS_FINISH));
-        cartItemRepository.saveAll(items);
-    }
-
-    @Transactional
-    public void resetCart(Long customerId) {
-        Customer customer = getCustomerById(customerId);
-        List<CartItem> items = cartItemRepository.findByCustomerAndStatus(customer, CartItem.STATUS_FINISH);
-        items.forEach(item -> item.setStatus(CartItem.STATUS_PENDING));
-        cartItemRepository.saveAll(items);
-    }
 }
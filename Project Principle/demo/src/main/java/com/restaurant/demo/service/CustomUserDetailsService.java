@@ -2,9 +2,11 @@ package com.restaurant.demo.service;
 
 import com.restaurant.demo.model.Customer;
 import com.restaurant.demo.repository.CustomerRepository;
+import com.restaurant.demo.service.customer.CustomerIdentityCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,11 +14,14 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private CustomerIdentityCache customerIdentityCache;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         Customer customer = customerRepository.findByUsername(username)
@@ -28,4 +33,18 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .authorities(new ArrayList<>()) // No specific roles for now
                 .build();
     }
+
+    /**
+     * Store a re-hashed password after a form login, only if the stored hash is still the one
+     * the user logged in with
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        customerRepository.findByUsername(user.getUsername()).ifPresent(customer -> {
+            if (customerRepository.updatePasswordHashIf(customer.getId(), user.getPassword(), newPassword) == 1) {
+                customerIdentityCache.evict(customer.getId());
+            }
+        });
+        return User.withUserDetails(user).password(newPassword).build();
+    }
 }
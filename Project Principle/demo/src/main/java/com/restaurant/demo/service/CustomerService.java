@@ -8,9 +8,12 @@ import com.restaurant.demo.exception.CustomerNotFoundException;
 import com.restaurant.demo.exception.InvalidCredentialsException;
 import com.restaurant.demo.model.Customer;
 import com.restaurant.demo.repository.CustomerRepository;
+import com.restaurant.demo.service.auth.PasswordHashService;
+import com.restaurant.demo.service.customer.CustomerIdentityCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -26,6 +29,12 @@ public class CustomerService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CustomerIdentityCache customerIdentityCache;
+
+    @Autowired
+    private PasswordHashService passwordHashService;
+
     /**
      * Register a new customer with validation
      */
@@ -62,7 +71,9 @@ public class CustomerService {
 
     /**
      * Authenticate customer login
+     * Runs outside a transaction so no DB connection is held while the password is checked
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public AuthResponseDto loginCustomer(CustomerLoginDto loginDto) {
         // Find customer by username or email
         Optional<Customer> customerOpt = findCustomerByUsernameOrEmail(loginDto.getUsernameOrEmail());
@@ -74,9 +85,14 @@ public class CustomerService {
         Customer customer = customerOpt.get();
 
         // Check password
-        if (!passwordEncoder.matches(loginDto.getPassword(), customer.getPasswordHash())) {
+        if (!passwordHashService.matches(loginDto.getPassword(), customer.getPasswordHash())) {
             throw InvalidCredentialsException.forLogin();
         }
+        passwordHashService.upgradeInBackground(loginDto.getPassword(), customer.getPasswordHash(), hash -> {
+            if (customerRepository.updatePasswordHashIf(customer.getId(), customer.getPasswordHash(), hash) == 1) {
+                customerIdentityCache.evict(customer.getId());
+            }
+        });
 
         return new AuthResponseDto(
             "login-token-" + customer.getId(),
@@ -171,6 +187,7 @@ public class CustomerService {
         }
 
         Customer updatedCustomer = customerRepository.save(customer);
+        customerIdentityCache.evict(customerId);
 
         return new AuthResponseDto(
             "update-token-" + updatedCustomer.getId(),
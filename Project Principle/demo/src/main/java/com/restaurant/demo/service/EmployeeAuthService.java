@@ -3,8 +3,9 @@ package com.restaurant.demo.service;
 import com.restaurant.demo.dto.EmployeeLoginDto;
 import com.restaurant.demo.model.Employee;
 import com.restaurant.demo.repository.EmployeeRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.restaurant.demo.service.auth.PasswordHashService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
@@ -14,11 +15,11 @@ import java.util.Optional;
 public class EmployeeAuthService {
 
     private final EmployeeRepository employeeRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashService passwordHashService;
 
-    public EmployeeAuthService(EmployeeRepository employeeRepository, PasswordEncoder passwordEncoder) {
+    public EmployeeAuthService(EmployeeRepository employeeRepository, PasswordHashService passwordHashService) {
         this.employeeRepository = employeeRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashService = passwordHashService;
     }
 
     /**
@@ -28,6 +29,8 @@ public class EmployeeAuthService {
      * @return Optional<Employee> containing the employee if authentication successful
      * @throws RuntimeException if authentication fails
      */
+    // no transaction: the password check must not hold a DB connection while it waits
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<Employee> authenticateEmployee(EmployeeLoginDto loginDto) {
         String username = loginDto.getUsername();
         String password = loginDto.getPassword();
@@ -42,10 +45,12 @@ public class EmployeeAuthService {
 
         Employee employee = employeeOpt.get();
 
-        // Verify password using passwordEncoder
-        if (!passwordEncoder.matches(password, employee.getPassword())) {
+        // Verify password on the hash pool, upgrading the stored hash if the cost changed
+        if (!passwordHashService.matches(password, employee.getPassword())) {
             throw new RuntimeException("Invalid username or password");
         }
+        passwordHashService.upgradeInBackground(password, employee.getPassword(),
+                hash -> employeeRepository.updatePasswordIf(employee.getId(), employee.getPassword(), hash));
 
         // Return Optional<Employee> if authentication successful
         return Optional.of(employee);
@@ -58,6 +63,7 @@ public class EmployeeAuthService {
      * @param password Employee's plain text password
      * @return Optional<Employee> containing the employee if authentication successful
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<Employee> authenticateEmployee(String username, String password) {
         EmployeeLoginDto loginDto = new EmployeeLoginDto(username, password);
         return authenticateEmployee(loginDto);
@@ -8,8 +8,10 @@ import com.restaurant.demo.model.Employee;
 import com.restaurant.demo.model.Manager;
 import com.restaurant.demo.repository.EmployeeRepository;
 import com.restaurant.demo.repository.ManagerRepository;
+import com.restaurant.demo.service.auth.PasswordHashService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
@@ -21,13 +23,16 @@ public class ManagerService {
     private final ManagerRepository managerRepository;
     private final EmployeeRepository employeeRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PasswordHashService passwordHashService;
 
     public ManagerService(ManagerRepository managerRepository, 
                          EmployeeRepository employeeRepository,
-                         PasswordEncoder passwordEncoder) {
+                         PasswordEncoder passwordEncoder,
+                         PasswordHashService passwordHashService) {
         this.managerRepository = managerRepository;
         this.employeeRepository = employeeRepository;
         this.passwordEncoder = passwordEncoder;
+        this.passwordHashService = passwordHashService;
     }
 
     /**
@@ -83,6 +88,8 @@ public class ManagerService {
      * @return Optional<Manager> containing the manager if authentication successful
      * @throws InvalidManagerCredentialsException if credentials are invalid
      */
+    // no transaction: the password check must not hold a DB connection while it waits
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Optional<Manager> authenticateManager(String email, String password) {
         // Find manager by email
         Optional<Manager> managerOpt = managerRepository.findByEmail(email);
@@ -94,10 +101,12 @@ public class ManagerService {
 
         Manager manager = managerOpt.get();
 
-        // Verify password using passwordEncoder
-        if (!passwordEncoder.matches(password, manager.getPassword())) {
+        // Verify password on the hash pool, upgrading the stored hash if the cost changed
+        if (!passwordHashService.matches(password, manager.getPassword())) {
             throw InvalidManagerCredentialsException.forLogin();
         }
+        passwordHashService.upgradeInBackground(password, manager.getPassword(),
+                hash -> employeeRepository.updatePasswordIf(manager.getId(), manager.getPassword(), hash));
 
         // Return Optional<Manager> if authentication successful
         return Optional.of(manager);
@@ -2,34 +2,67 @@ package com.restaurant.demo.service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.restaurant.demo.dto.MenuItemRequest;
 import com.restaurant.demo.dto.MenuItemResponse;
 import com.restaurant.demo.exception.MenuItemNotFoundException;
 import com.restaurant.demo.model.MenuItem;
 import com.restaurant.demo.repository.MenuItemRepo;
+import com.restaurant.demo.service.menu.MenuItemView;
+import com.restaurant.demo.service.menu.MenuSnapshot;
 
 @Service
 public class MenuItemService {
     @Autowired
     private MenuItemRepo menuItemRepo;
 
+    // เมนูเปลี่ยนไม่กี่ครั้งต่อวันแต่ถูกอ่านทุกครั้งที่เปิดหน้าร้าน จึงเก็บ snapshot ไว้ในหน่วยความจำ
+    // null = ต้องโหลดใหม่ในการอ่านครั้งถัดไป
+    private volatile MenuSnapshot snapshot;
+
+    // Bumped on every menu write so a reload that raced with a write is not kept
+    private final AtomicLong menuVersion = new AtomicLong();
+
+    /**
+     * Current menu snapshot, loaded from the database on first use after a change
+     *
+     * @return Immutable menu snapshot
+     */
+    public MenuSnapshot getMenuSnapshot() {
+        MenuSnapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        long version = menuVersion.get();
+        MenuSnapshot loaded = new MenuSnapshot(menuItemRepo.findAll());
+        if (menuVersion.get() == version) {
+            snapshot = loaded;
+        }
+        return loaded;
+    }
+
     // ค้นหารายการเมนูที่เปิดใช้งาน
-    public List<MenuItem> getActiveMenuItems() {
-        return menuItemRepo.findByActiveTrue();
+    public List<MenuItemView> getActiveMenuItems() {
+        return getMenuSnapshot().getActiveItems();
     }
 
     // เพิ่มเมนูใหม่
     public MenuItem addMenuItem(MenuItem menuItem) {
-        return menuItemRepo.save(menuItem);
+        MenuItem saved = menuItemRepo.save(menuItem);
+        invalidateMenu();
+        return saved;
     }
 
     // ลบเมนูตาม ID
     public void deleteMenuItem(Long id) {
         menuItemRepo.deleteById(id);
+        invalidateMenu();
     }
 
     // Task 2.1: Create menu item from request DTO with validation
@@ -40,6 +73,7 @@ public class MenuItemService {
         
         MenuItem menuItem = mapRequestToEntity(request);
         MenuItem savedItem = menuItemRepo.save(menuItem);
+        invalidateMenu();
         
         return MenuItemResponse.fromEntity(savedItem);
     }
@@ -61,18 +95,37 @@ public class MenuItemService {
         existingItem.setActive(request.getActive());
         
         MenuItem updatedItem = menuItemRepo.save(existingItem);
+        invalidateMenu();
         
         return MenuItemResponse.fromEntity(updatedItem);
     }
 
     // Task 2.3: Get menu item by ID
-    public Optional<MenuItem> getMenuItemById(Long id) {
-        return menuItemRepo.findById(id);
+    public Optional<MenuItemView> getMenuItemById(Long id) {
+        return Optional.ofNullable(getMenuSnapshot().getItem(id));
     }
 
     // Task 2.4: Get all menu items (both active and inactive)
-    public List<MenuItem> getAllMenuItems() {
-        return menuItemRepo.findAll();
+    public List<MenuItemView> getAllMenuItems() {
+        return getMenuSnapshot().getAllItems();
+    }
+
+    // Drop the snapshot after a write; the next read reloads it
+    private void invalidateMenu() {
+        menuVersion.incrementAndGet();
+        snapshot = null;
+
+        // ถ้าอยู่ใน transaction ให้ล้างอีกครั้งหลัง commit/rollback
+        // กันไม่ให้ snapshot ที่โหลดระหว่างนั้นค้างข้อมูลเก่าหรือข้อมูลที่ถูก rollback
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    menuVersion.incrementAndGet();
+                    snapshot = null;
+                }
+            });
+        }
     }
 
     // Task 2.5: Business logic validation
@@ -1,6 +1,8 @@
 package com.restaurant.demo.service;
 
+import com.restaurant.demo.dto.OrderPageDto;
 import com.restaurant.demo.dto.OrderResponseDto;
+import com.restaurant.demo.exception.OrderStatusConflictException;
 import com.restaurant.demo.model.CartItem;
 import com.restaurant.demo.model.Customer;
 import com.restaurant.demo.model.Employee;
@@ -11,12 +13,21 @@ import com.restaurant.demo.repository.CartItemRepository;
 import com.restaurant.demo.repository.CustomerRepository;
 import com.restaurant.demo.repository.EmployeeRepository;
 import com.restaurant.demo.repository.OrderRepository;
+import com.restaurant.demo.service.cart.CartStore;
+import com.restaurant.demo.service.order.OrderCursor;
+import com.restaurant.demo.service.order.OrderEvent;
+import com.restaurant.demo.service.order.OrderStatusCounters;
+import com.restaurant.demo.service.report.SalesRollupService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,21 +38,37 @@ public class OrderService {
         private final CustomerRepository customerRepository;
         private final OrderRepository orderRepository;
         private final EmployeeRepository employeeRepository;
+        private final ApplicationEventPublisher eventPublisher;
+        private final SalesRollupService salesRollupService;
+        private final CartStore cartStore;
+        private final OrderStatusCounters orderStatusCounters;
 
         public OrderService(CartItemRepository cartItemRepository,
                         CustomerRepository customerRepository,
                         OrderRepository orderRepository,
-                        EmployeeRepository employeeRepository) {
+                        EmployeeRepository employeeRepository,
+                        ApplicationEventPublisher eventPublisher,
+                        SalesRollupService salesRollupService,
+                        CartStore cartStore,
+                        OrderStatusCounters orderStatusCounters) {
                 this.cartItemRepository = cartItemRepository;
                 this.customerRepository = customerRepository;
                 this.orderRepository = orderRepository;
                 this.employeeRepository = employeeRepository;
+                this.eventPublisher = eventPublisher;
+                this.salesRollupService = salesRollupService;
+                this.cartStore = cartStore;
+                this.orderStatusCounters = orderStatusCounters;
         }
 
         @Transactional
         public OrderResponseDto placeOrder(Long customerId, Long employeeId) {
                 LocalDateTime now = LocalDateTime.now();
 
+                // Write the cart's pending quantities and close it until this transaction ends,
+                // before the first read so the cart rows below include them
+                cartStore.beginCheckout(customerId);
+
                 // Fetch customer
                 Customer customer = customerRepository.findById(customerId)
                                 .orElseThrow(() -> new RuntimeException("Customer not found"));
@@ -54,7 +81,7 @@ public class OrderService {
                 }
 
                 // Get cart items (only those still in cart, not ordered)
-                List<CartItem> cartItems = cartItemRepository.findByCustomerAndStatus(customer, "Pending");
+                List<CartItem> cartItems = cartItemRepository.findByCustomerAndStatus(customer, CartItem.STATUS_PENDING);
                 if (cartItems.isEmpty())
                         throw new RuntimeException("Cart is empty");
 
@@ -62,7 +89,7 @@ public class OrderService {
                 Order order = new Order();
                 order.setCustomer(customer);
                 order.setEmployee(employee);
-                order.setStatus(OrderStatus.PENDING.getValue());
+                order.setOrderStatus(OrderStatus.PENDING);
                 order.setCreatedAt(now);
                 order.setUpdatedAt(now);
 
@@ -97,12 +124,12 @@ public class OrderService {
                 order.setTotalAmount(totalAmount);
                 order.setUpdatedAt(now);
 
-                // Save Order and OrderItems (Cascade)
+                // Save Order and OrderItems (Cascade); item INSERTs are flushed as one JDBC batch
                 order = orderRepository.save(order);
 
                 // 🔥 CRITICAL FIX: Clear cart after successful order placement
-                // Delete cart items to prevent accumulation
-                cartItemRepository.deleteAll(cartItems);
+                // One bulk DELETE instead of one statement per cart row
+                cartItemRepository.deleteByCustomerIdAndStatus(customerId, CartItem.STATUS_PENDING);
 
                 // Map to DTO for response
                 List<OrderResponseDto.OrderItemDto> dtoItems = order.getOrderItems().stream()
@@ -114,7 +141,7 @@ public class OrderService {
                                                 i.getTotal()))
                                 .toList();
 
-                return new OrderResponseDto(
+                OrderResponseDto response = new OrderResponseDto(
                                 order.getId(),           // orderId
                                 customer.getId(),        // customerId
                                 customer.getName(),      // customerName
@@ -123,6 +150,11 @@ public class OrderService {
                                 order.getStatus(),       // status
                                 order.getCreatedAt(),    // createdAt
                                 order.getUpdatedAt());   // updatedAt
+
+                // Notify kitchen feed (delivered after commit)
+                eventPublisher.publishEvent(OrderEvent.created(response));
+
+                return response;
         }
 
         /**
@@ -134,10 +166,12 @@ public class OrderService {
          */
         public List<OrderResponseDto> getOrdersByCustomerId(Long customerId) {
                 // Validate customer exists
-                customerRepository.findById(customerId)
-                                .orElseThrow(() -> new RuntimeException("Customer not found with ID: " + customerId));
+                if (!customerRepository.existsById(customerId)) {
+                        throw new RuntimeException("Customer not found with ID: " + customerId);
+                }
 
-                List<Order> orders = orderRepository.findByCustomer_Id(customerId);
+                // Orders, customer and items in one statement (no per-order lazy loads)
+                List<Order> orders = orderRepository.findWithItemsByCustomerId(customerId);
 
                 return orders.stream()
                                 .map(this::mapOrderToDto)
@@ -152,10 +186,12 @@ public class OrderService {
          * @throws RuntimeException if customer not found
          */
         public List<OrderResponseDto> getPendingOrdersByCustomerId(Long customerId) {
-                Customer customer = customerRepository.findById(customerId)
-                                .orElseThrow(() -> new RuntimeException("Customer not found with ID: " + customerId));
+                if (!customerRepository.existsById(customerId)) {
+                        throw new RuntimeException("Customer not found with ID: " + customerId);
+                }
 
-                List<Order> pendingOrders = orderRepository.findByCustomerAndStatus(customer, OrderStatus.PENDING.getValue());
+                List<Order> pendingOrders = orderRepository.findWithItemsByCustomerIdAndStatus(
+                                customerId, OrderStatus.PENDING);
 
                 return pendingOrders.stream()
                                 .map(this::mapOrderToDto)
@@ -173,13 +209,55 @@ public class OrderService {
                         throw new IllegalArgumentException("Invalid status: " + status);
                 }
 
-                List<Order> orders = orderRepository.findByStatusIgnoreCase(status);
+                // Canonical enum lookup: plain equality on the indexed status column
+                List<Order> orders = orderRepository.findWithItemsByStatus(OrderStatus.fromValue(status));
 
                 return orders.stream()
                                 .map(this::mapOrderToDto)
                                 .collect(Collectors.toList());
         }
 
+        /**
+         * Get one page of orders filtered by status, newest first (keyset pagination)
+         * 
+         * @param status The status to filter by
+         * @param cursor Cursor from the previous page (null for the first page)
+         * @param limit Maximum number of orders in the page
+         * @return OrderPageDto with orders and the cursor for the next page
+         */
+        public OrderPageDto getOrdersByStatusPage(String status, String cursor, int limit) {
+                if (!OrderStatus.isValid(status)) {
+                        throw new IllegalArgumentException("Invalid status: " + status);
+                }
+
+                OrderCursor position = OrderCursor.decode(cursor);
+                List<Long> ids = orderRepository.findIdsByStatusBefore(
+                                OrderStatus.fromValue(status), position.getCreatedAt(), position.getId(), Limit.of(limit + 1));
+
+                return loadPage(ids, limit);
+        }
+
+        /**
+         * Get one page of a customer's orders (all statuses), newest first (keyset pagination)
+         * 
+         * @param customerId The ID of the customer
+         * @param cursor Cursor from the previous page (null for the first page)
+         * @param limit Maximum number of orders in the page
+         * @return OrderPageDto with orders and the cursor for the next page
+         * @throws RuntimeException if customer not found
+         */
+        public OrderPageDto getOrdersByCustomerIdPage(Long customerId, String cursor, int limit) {
+                if (!customerRepository.existsById(customerId)) {
+                        throw new RuntimeException("Customer not found with ID: " + customerId);
+                }
+
+                OrderCursor position = OrderCursor.decode(cursor);
+                List<Long> ids = orderRepository.findIdsByCustomerIdBefore(
+                                customerId, position.getCreatedAt(), position.getId(), Limit.of(limit + 1));
+
+                return loadPage(ids, limit);
+        }
+
         /**
          * Get order by ID
          * 
@@ -188,7 +266,7 @@ public class OrderService {
          * @throws RuntimeException if order not found
          */
         public OrderResponseDto getOrderById(Long orderId) {
-                Order order = orderRepository.findById(orderId)
+                Order order = orderRepository.findWithItemsById(orderId)
                                 .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
 
                 return mapOrderToDto(order);
@@ -196,43 +274,125 @@ public class OrderService {
 
         /**
          * Update order status with validation
+         * The change is a conditional UPDATE on the allowed previous statuses, so of two
+         * concurrent transitions only one can succeed; the other gets a conflict
          * 
          * @param orderId The order ID
          * @param newStatus The new status
          * @return OrderResponseDto with updated order
-         * @throws RuntimeException if order not found or validation fails
+         * @throws IllegalArgumentException if newStatus is not a valid status
+         * @throws OrderStatusConflictException if the order's current status does not allow the change
+         * @throws RuntimeException if order not found
          */
         public OrderResponseDto updateOrderStatus(Long orderId, String newStatus) {
-                Order order = orderRepository.findById(orderId)
+                OrderStatus target = OrderStatus.fromValue(newStatus);
+                OrderStatus previous = transitionStatus(orderId, target, LocalDateTime.now());
+
+                Order order = orderRepository.findWithItemsById(orderId)
                                 .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
+                String currentStatus = previous.getValue();
+
+                // Only In Progress → Finish adds to the sales rollup, and Finish can only be left for
+                // Cancelled, which takes the order back out, so the rollup counts each finished order once
+                if (order.getOrderStatus() == OrderStatus.FINISH) {
+                        salesRollupService.recordFinishedOrder(order);
+                } else if (previous == OrderStatus.FINISH && order.getOrderStatus() == OrderStatus.CANCELLED) {
+                        salesRollupService.recordCancelledFinishedOrder(order);
+                }
+
+                OrderResponseDto response = mapOrderToDto(order);
 
-                String currentStatus = order.getStatus();
+                // Notify kitchen feed (delivered after commit)
+                eventPublisher.publishEvent(OrderEvent.statusChanged(response, currentStatus));
 
-                if (!OrderStatus.isValidTransition(currentStatus, newStatus)) {
-                        throw new IllegalArgumentException(
-                                        String.format("Invalid status transition from %s to %s", currentStatus,
-                                                        newStatus));
+                return response;
+        }
+
+        /**
+         * Move an order to the target status with a conditional UPDATE and return the status it had.
+         * When only one status may precede the target (e.g. Pending before In Progress) that is a
+         * single statement. Otherwise (Cancelled) the current status is read with a row lock and used
+         * as the expected value, so the previous status reported to listeners is exact; the lock keeps
+         * a concurrent transition from changing it before the UPDATE, which then cannot miss.
+         */
+        private OrderStatus transitionStatus(Long orderId, OrderStatus target, LocalDateTime now) {
+                Set<OrderStatus> allowed = OrderStatus.allowedPredecessors(target);
+                if (allowed.size() == 1) {
+                        if (orderRepository.updateStatusIfIn(orderId, target, now, allowed) == 1) {
+                                return allowed.iterator().next();
+                        }
+                        throw rejectTransition(orderId, target);
                 }
 
-                order.setStatus(newStatus);
-                order.setUpdatedAt(LocalDateTime.now());
-                orderRepository.save(order);
+                // locking read: under REPEATABLE READ a plain SELECT would return this transaction's snapshot
+                OrderStatus current = orderRepository.lockStatusById(orderId)
+                                .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
+                if (!allowed.contains(current)) {
+                        throw OrderStatusConflictException.forTransition(current.getValue(), target.getValue());
+                }
+                if (orderRepository.updateStatusIfIn(orderId, target, now, Set.of(current)) == 1) {
+                        return current;
+                }
+                throw rejectTransition(orderId, target);
+        }
 
-                return mapOrderToDto(order);
+        /**
+         * Why a conditional status UPDATE matched no row: the order is missing, or its status does not allow the change
+         */
+        private RuntimeException rejectTransition(Long orderId, OrderStatus target) {
+                // latest committed status, not the transaction snapshot
+                return orderRepository.lockStatusById(orderId)
+                                .<RuntimeException>map(current -> OrderStatusConflictException.forTransition(
+                                                current.getValue(), target.getValue()))
+                                .orElseGet(() -> new RuntimeException("Order not found with ID: " + orderId));
         }
 
         /**
          * Get count of orders by status (for notification polling)
+         * Served from the in-memory status counters once they are seeded (no query)
          * 
          * @param status The status to count
          * @return Count of orders with the specified status
          */
+        // no transaction (and no pooled connection) needed when the counters answer
+        @Transactional(propagation = Propagation.SUPPORTS)
         public Long getOrderCountByStatus(String status) {
                 if (!OrderStatus.isValid(status)) {
                         throw new IllegalArgumentException("Invalid status: " + status);
                 }
 
-                return orderRepository.countByStatus(status);
+                OrderStatus orderStatus = OrderStatus.fromValue(status);
+                if (orderStatusCounters.isReady()) {
+                        return orderStatusCounters.count(orderStatus);
+                }
+                return orderRepository.countByStatus(orderStatus);
+        }
+
+        /**
+         * Helper method to hydrate one page of order IDs (fetched with limit + 1 to detect a next page)
+         * 
+         * @param ids Order IDs in page order
+         * @param limit Page size
+         * @return OrderPageDto
+         */
+        private OrderPageDto loadPage(List<Long> ids, int limit) {
+                boolean hasMore = ids.size() > limit;
+                List<Long> pageIds = hasMore ? ids.subList(0, limit) : ids;
+                if (pageIds.isEmpty()) {
+                        return new OrderPageDto(List.of(), null);
+                }
+
+                List<Order> orders = orderRepository.findWithItemsByIdIn(pageIds);
+                List<OrderResponseDto> dtos = orders.stream()
+                                .map(this::mapOrderToDto)
+                                .collect(Collectors.toList());
+
+                String nextCursor = null;
+                if (hasMore) {
+                        Order last = orders.get(orders.size() - 1);
+                        nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+                }
+                return new OrderPageDto(dtos, nextCursor);
         }
 
         /**
@@ -241,7 +401,8 @@ public class OrderService {
          * @param order The Order entity
          * @return OrderResponseDto
          */
-        private OrderResponseDto mapOrderToDto(Order order) {
+        // package-private so the JMH benchmark (src/jmh) can measure it directly
+        OrderResponseDto mapOrderToDto(Order order) {
                 List<OrderResponseDto.OrderItemDto> orderItems = order.getOrderItems().stream()
                                 .map(item -> new OrderResponseDto.OrderItemDto(
                                                 item.getId(),
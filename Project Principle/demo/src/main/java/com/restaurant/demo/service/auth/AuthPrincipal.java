@@ -0,0 +1,24 @@
+package com.restaurant.demo.service.auth;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Who is calling, as read from a verified auth token. Set on the request by
+ * {@link com.restaurant.demo.config.AuthTokenFilter}; absent for anonymous requests.
+ */
+public record AuthPrincipal(Role role, Long id, String username, long expiresAtEpochSecond) {
+
+    public static final String REQUEST_ATTRIBUTE = "authPrincipal";
+
+    public enum Role {
+        CUSTOMER, EMPLOYEE, MANAGER
+    }
+
+    public boolean is(Role expected) {
+        return role == expected;
+    }
+
+    public static AuthPrincipal from(HttpServletRequest request) {
+        return (AuthPrincipal) request.getAttribute(REQUEST_ATTRIBUTE);
+    }
+}
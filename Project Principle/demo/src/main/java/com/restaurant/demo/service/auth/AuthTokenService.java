@@ -0,0 +1,154 @@
+package com.restaurant.demo.service.auth;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and verifies the stateless auth token that replaces login state in HttpSession.
+ *
+ * A token is base64url(role|id|expiry|username) + "." + base64url(HMAC-SHA256 of that payload),
+ * verified with security.token.secret alone, so logins no longer need HttpSession. It is
+ * sent as the AUTH_TOKEN cookie (HttpOnly, so the existing pages work unchanged) and is also
+ * accepted as "Authorization: Bearer ...". Tokens cannot be revoked before they expire;
+ * logout just clears the cookie.
+ *
+ * security.token.secret is required: startup fails without it, so every instance and every
+ * restart accepts the same tokens. Only the dev profile may fall back to a random per-process key.
+ *
+ * Open issue: the token was meant to let the application run as several instances behind a
+ * round-robin load balancer, and that goal is not met yet. Carts, the menu snapshot,
+ * place-order idempotency keys, the live order board and the status counters are still held in
+ * the memory of one instance, so a second instance would serve other carts and its own counts.
+ * Until that state moves to shared storage, run a single instance (or route each client to the
+ * same instance, accepting that the kitchen and manager views only see their own instance).
+ */
+@Service
+public class AuthTokenService {
+
+    public static final String COOKIE_NAME = "AUTH_TOKEN";
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthTokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+    private final boolean secureCookie;
+
+    public AuthTokenService(@Value("${security.token.secret:}") String secret,
+                            @Value("${security.token.ttl-minutes:720}") long ttlMinutes,
+                            @Value("${security.token.cookie-secure:false}") boolean secureCookie,
+                            @Value("${security.token.allow-random-secret:false}") boolean allowRandomSecret) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            if (!allowRandomSecret) {
+                throw new IllegalStateException("security.token.secret (AUTH_TOKEN_SECRET) is not set; "
+                        + "tokens must verify on every instance and after a restart. "
+                        + "Use the dev profile to run with a random per-process key.");
+            }
+            // dev เท่านั้น: token จะใช้ไม่ได้หลัง restart หรือบน instance อื่น
+            logger.warn("security.token.secret is not set; dev profile, using a random key, tokens will not "
+                    + "survive a restart or be accepted by other instances");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.secureCookie = secureCookie;
+    }
+
+    public String issue(AuthPrincipal.Role role, Long id, String username) {
+        long expiresAt = Instant.now().plus(ttl).getEpochSecond();
+        String payload = role.name() + "|" + id + "|" + expiresAt + "|" + (username != null ? username : "");
+        String encodedPayload = ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return encodedPayload + "." + ENCODER.encodeToString(sign(encodedPayload));
+    }
+
+    /**
+     * @return The principal, or empty if the token is malformed, tampered with or expired
+     */
+    public Optional<AuthPrincipal> verify(String token) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        int dot = token.indexOf('.');
+        if (dot <= 0 || dot == token.length() - 1) {
+            return Optional.empty();
+        }
+        String encodedPayload = token.substring(0, dot);
+        try {
+            byte[] signature = DECODER.decode(token.substring(dot + 1));
+            if (!MessageDigest.isEqual(signature, sign(encodedPayload))) {
+                return Optional.empty();
+            }
+            String[] parts = new String(DECODER.decode(encodedPayload), StandardCharsets.UTF_8).split("\\|", 4);
+            if (parts.length != 4) {
+                return Optional.empty();
+            }
+            long expiresAt = Long.parseLong(parts[2]);
+            if (Instant.now().getEpochSecond() >= expiresAt) {
+                return Optional.empty();
+            }
+            return Optional.of(new AuthPrincipal(
+                    AuthPrincipal.Role.valueOf(parts[0]), Long.valueOf(parts[1]), parts[3], expiresAt));
+        } catch (IllegalArgumentException e) {
+            // bad base64, number or role name
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Issue a token and set it as the auth cookie on the response
+     *
+     * @return The token, for clients that prefer the Authorization header
+     */
+    public String issueCookie(HttpServletResponse response, AuthPrincipal.Role role, Long id, String username) {
+        String token = issue(role, id, username);
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(token, ttl).toString());
+        return token;
+    }
+
+    public void clearCookie(HttpServletResponse response) {
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie("", Duration.ZERO).toString());
+    }
+
+    private ResponseCookie cookie(String value, Duration maxAge) {
+        return ResponseCookie.from(COOKIE_NAME, value)
+                .httpOnly(true)
+                .secure(secureCookie)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAge)
+                .build();
+    }
+
+    private byte[] sign(String encodedPayload) {
+        try {
+            // Mac is not thread-safe; a fresh instance per call is cheap next to the request
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(encodedPayload.getBytes(StandardCharsets.US_ASCII));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
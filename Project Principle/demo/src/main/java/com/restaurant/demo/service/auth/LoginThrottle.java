@@ -0,0 +1,102 @@
+package com.restaurant.demo.service.auth;
+
+import com.restaurant.demo.exception.LoginThrottledException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits login attempts per client IP, and failed logins per username from that IP, before any
+ * lookup or password hash runs.
+ *
+ * Every login endpoint calls {@link #acquire} first and {@link #recordFailure} when the
+ * credentials turn out wrong; for the customer login form (POST /login, handled by Spring
+ * Security) that is LoginThrottleFilter and LoginFailureHandler. The IP limit counts every attempt and caps raw volume, including
+ * bursts of parallel guesses. The username limit only counts failures and is keyed on the
+ * (username, IP) pair, so junk attempts from elsewhere cannot lock the real user out. Once either
+ * budget is spent the attempt fails with {@link LoginThrottledException} (429) and never reaches bcrypt.
+ *
+ * The client IP is request.getRemoteAddr(). Behind a reverse proxy that is the proxy's address,
+ * so every client would share one budget; set server.forward-headers-strategy=native
+ * (FORWARD_HEADERS_STRATEGY) so Tomcat takes it from X-Forwarded-For instead. Tablets behind one
+ * NAT still share their public address and its per-IP budget.
+ */
+@Service
+public class LoginThrottle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottle.class);
+
+    private final SlidingWindowLimiter byIp;
+    private final SlidingWindowLimiter failuresByUsername;
+
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejectedByIp = new LongAdder();
+    private final LongAdder rejectedByFailures = new LongAdder();
+
+    public LoginThrottle(@Value("${security.login.stripes:65536}") int stripes,
+                         @Value("${security.login.max-per-ip:30}") int maxPerIp,
+                         @Value("${security.login.ip-window-seconds:60}") long ipWindowSeconds,
+                         @Value("${security.login.max-failures-per-username:10}") int maxFailuresPerUsername,
+                         @Value("${security.login.failure-window-seconds:300}") long failureWindowSeconds) {
+        this.byIp = new SlidingWindowLimiter(stripes, maxPerIp, ipWindowSeconds * 1000);
+        this.failuresByUsername = new SlidingWindowLimiter(stripes, maxFailuresPerUsername, failureWindowSeconds * 1000);
+    }
+
+    /**
+     * Count a login attempt for this client and check the username's recent failures from it
+     *
+     * @param username Username or email as typed; blank names are only limited by IP
+     * @param clientIp Remote address of the request
+     * @throws LoginThrottledException if the client has too many recent attempts, or this
+     *         username too many recent failures from this client
+     */
+    public void acquire(String username, String clientIp) {
+        long now = System.currentTimeMillis();
+        if (clientIp != null && !byIp.tryAcquire(clientIp, now)) {
+            rejectedByIp.increment();
+            logger.debug("Login throttled for client {}", clientIp);
+            throw LoginThrottledException.forLogin(byIp.retryAfterSeconds(now));
+        }
+        String key = failureKey(username, clientIp);
+        if (key != null && failuresByUsername.isOverLimit(key, now)) {
+            rejectedByFailures.increment();
+            logger.debug("Login throttled for username {} from {}", username, clientIp);
+            throw LoginThrottledException.forLogin(failuresByUsername.retryAfterSeconds(now));
+        }
+        allowed.increment();
+    }
+
+    /**
+     * Count a failed login (wrong username or password) against the username from this client
+     *
+     * @param username Username or email as typed
+     * @param clientIp Remote address of the request
+     */
+    public void recordFailure(String username, String clientIp) {
+        String key = failureKey(username, clientIp);
+        if (key != null) {
+            failuresByUsername.record(key, System.currentTimeMillis());
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(allowed.sum(), rejectedByIp.sum(), rejectedByFailures.sum());
+    }
+
+    private static String failureKey(String username, String clientIp) {
+        if (username == null || username.isBlank()) {
+            return null;
+        }
+        return username.trim().toLowerCase(Locale.ROOT) + '\n' + (clientIp != null ? clientIp : "");
+    }
+
+    /**
+     * Running totals of login attempts let through and turned away, by which limit hit
+     */
+    public record Stats(long allowed, long rejectedByIp, long rejectedByFailures) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.restaurant.demo.service.auth;
+
+import com.restaurant.demo.exception.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs password hash work for the login endpoints on a small dedicated pool.
+ *
+ * bcrypt is pure CPU, so running one per Tomcat thread during a login burst just makes every
+ * request slow. Here at most security.password.hash-threads hashes run at once and up to
+ * security.password.hash-queue-capacity wait; beyond that the login fails fast with
+ * {@link ServiceBusyException} (503). The request thread still waits for its own check, for at
+ * most hash-timeout-ms, so the login services call it outside any transaction and hold no pooled
+ * DB connection meanwhile. Re-hashing at a new cost runs on the same pool in the background.
+ */
+@Service
+public class PasswordHashService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashService.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private final AtomicLong rehashed = new AtomicLong();
+
+    public PasswordHashService(PasswordEncoder passwordEncoder,
+                               @Value("${security.password.hash-threads:0}") int threads,
+                               @Value("${security.password.hash-queue-capacity:64}") int queueCapacity,
+                               @Value("${security.password.hash-timeout-ms:5000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Check a login password against its stored hash on the hash pool; the caller waits for the
+     * result, for at most hash-timeout-ms
+     *
+     * @throws ServiceBusyException if the pool is saturated or the check did not finish in time
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return false;
+        }
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            logger.warn("Password hash queue full ({} waiting), rejecting login", executor.getQueue().size());
+            throw ServiceBusyException.forLogin();
+        }
+        try {
+            Boolean matched = result.get(timeoutMs, TimeUnit.MILLISECONDS);
+            completed.incrementAndGet();
+            return matched;
+        } catch (TimeoutException e) {
+            // drops the check if it is still queued; a running bcrypt ignores interrupts and finishes
+            result.cancel(true);
+            timedOut.incrementAndGet();
+            throw ServiceBusyException.forLogin();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw ServiceBusyException.forLogin();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password check failed", e.getCause());
+        }
+    }
+
+    /**
+     * Re-hash a password that just matched if its stored hash was made with a weaker cost than
+     * the encoder is configured for now. The hash runs on the pool after the login has returned
+     * and the new hash is handed to store there; when the pool is busy the upgrade is skipped
+     * and happens on a later login.
+     */
+    public void upgradeInBackground(String rawPassword, String encodedPassword, Consumer<String> store) {
+        if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    store.accept(passwordEncoder.encode(rawPassword));
+                    rehashed.incrementAndGet();
+                } catch (RuntimeException e) {
+                    logger.warn("Password re-hash failed, keeping the old hash", e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.debug("Password hash queue full, skipping re-hash");
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(executor.getActiveCount(), executor.getQueue().size(),
+                completed.get(), rejected.get(), timedOut.get(), rehashed.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Snapshot of the hash pool: checks running and queued now, and running totals
+     */
+    public record Stats(int active, int queued, long completed, long rejected, long timedOut, long rehashed) {
+    }
+}
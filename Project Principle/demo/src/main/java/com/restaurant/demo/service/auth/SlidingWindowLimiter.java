@@ -0,0 +1,110 @@
+package com.restaurant.demo.service.auth;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Sliding-window attempt counter over a fixed number of hash stripes.
+ *
+ * Each stripe keeps the count of the current and the previous window; the rate is estimated as
+ * previous * (unelapsed share of the current window) + current. Updates are a compare-and-set
+ * loop on the stripe, so no locks are taken. Keys that hash to the same stripe share a budget,
+ * which trades a little precision for memory that does not grow with the number of keys.
+ */
+final class SlidingWindowLimiter {
+
+    private final AtomicReferenceArray<Window> stripes;
+    private final int mask;
+    private final int limit;
+    private final long windowMs;
+
+    /**
+     * @param stripes number of stripes, rounded up to a power of two
+     * @param limit attempts allowed per window
+     * @param windowMs window length in milliseconds
+     */
+    SlidingWindowLimiter(int stripes, int limit, long windowMs) {
+        if (limit < 1 || windowMs < 1) {
+            throw new IllegalArgumentException("Limit and window must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.limit = limit;
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Count one attempt for the key, unless the key is already at its limit
+     *
+     * @return true if the attempt is allowed (and was counted)
+     */
+    boolean tryAcquire(String key, long nowMs) {
+        return add(key, nowMs, true);
+    }
+
+    /**
+     * Count one attempt for the key whether or not it is over its limit
+     */
+    void record(String key, long nowMs) {
+        add(key, nowMs, false);
+    }
+
+    /**
+     * Whether the key has used up its budget, without counting an attempt
+     */
+    boolean isOverLimit(String key, long nowMs) {
+        long index = nowMs / windowMs;
+        return estimate(roll(stripes.get(stripe(key)), index), nowMs) >= limit;
+    }
+
+    /**
+     * Whole seconds until the current window ends, at least 1
+     */
+    long retryAfterSeconds(long nowMs) {
+        long remainingMs = windowMs - nowMs % windowMs;
+        return Math.max(1, (remainingMs + 999) / 1000);
+    }
+
+    private boolean add(String key, long nowMs, boolean enforceLimit) {
+        int stripe = stripe(key);
+        long index = nowMs / windowMs;
+        while (true) {
+            Window seen = stripes.get(stripe);
+            Window current = roll(seen, index);
+            if (enforceLimit && estimate(current, nowMs) >= limit) {
+                return false;
+            }
+            Window next = new Window(index, current.previous(), current.current() + 1);
+            if (stripes.compareAndSet(stripe, seen, next)) {
+                return true;
+            }
+        }
+    }
+
+    // previous window weighted by the share of it still inside the sliding window, plus the current one
+    private double estimate(Window window, long nowMs) {
+        double unelapsed = 1.0 - (double) (nowMs % windowMs) / windowMs;
+        return window.previous() * unelapsed + window.current();
+    }
+
+    private int stripe(String key) {
+        return spread(key.hashCode()) & mask;
+    }
+
+    private static Window roll(Window window, long index) {
+        if (window == null || window.index() < index - 1) {
+            return new Window(index, 0, 0);
+        }
+        if (window.index() == index - 1) {
+            return new Window(index, window.current(), 0);
+        }
+        return window;
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private record Window(long index, int previous, int current) {
+    }
+}
@@ -0,0 +1,494 @@
+package com.restaurant.demo.service.cart;
+
+import com.restaurant.demo.dto.CartItemDto;
+import com.restaurant.demo.dto.CartSummaryDto;
+import com.restaurant.demo.exception.CartCheckoutInProgressException;
+import com.restaurant.demo.model.CartItem;
+import com.restaurant.demo.model.Customer;
+import com.restaurant.demo.repository.CartItemRepository;
+import com.restaurant.demo.service.customer.CustomerIdentityCache;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind store for customers' carts.
+ *
+ * The first access loads a customer's cart rows into memory. After that, reads and quantity
+ * changes (the +/- buttons) are served from memory without touching the database. Changed
+ * quantities are marked dirty and written to cart_items in one JDBC batch every
+ * cart.write-behind.flush-interval-ms, which bounds how much can be lost on a crash.
+ *
+ * Adding a new line and removing lines still write through immediately, because the
+ * frontend addresses lines by their database id. Checkout must call {@link #beginCheckout(Long)},
+ * and any other code that reads cart_items directly must call {@link #flush(Long)} first.
+ *
+ * Every change to a cart runs under that cart's lock, which checkout also takes to close the
+ * cart, so a change can never slip in between checkout's flush and its delete. A flush that
+ * updates no row (the line was deleted meanwhile) is logged and the line dropped as lost.
+ *
+ * The store assumes a single application instance owns the carts.
+ */
+@Component
+public class CartStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CartStore.class);
+
+    private static final String FLUSH_SQL = "UPDATE cart_items SET quantity = ?, updated_at = ? WHERE id = ?";
+
+    private final CartItemRepository cartItemRepository;
+    private final CustomerIdentityCache customers;
+    private final JdbcTemplate jdbcTemplate;
+    private final long idleEvictMs;
+
+    private final Map<Long, CustomerCart> carts = new ConcurrentHashMap<>();
+    private final Set<CartLine> dirtyLines = ConcurrentHashMap.newKeySet();
+    // held while dirty lines are written, so checkout waits for a scheduled flush in flight
+    private final Object flushLock = new Object();
+    private final LongAdder lostLines = new LongAdder();
+
+    public CartStore(CartItemRepository cartItemRepository,
+                     CustomerIdentityCache customers,
+                     JdbcTemplate jdbcTemplate,
+                     @Value("${cart.write-behind.idle-evict-ms:600000}") long idleEvictMs) {
+        this.cartItemRepository = cartItemRepository;
+        this.customers = customers;
+        this.jdbcTemplate = jdbcTemplate;
+        this.idleEvictMs = idleEvictMs;
+    }
+
+    // ------------------ Reads ------------------
+
+    public List<CartItem> getItems(Long customerId) {
+        CustomerCart cart = cart(customerId);
+        return cart.lines.values().stream()
+                .sorted(Comparator.comparing(line -> line.id))
+                .map(line -> line.toCartItem(cart.customer))
+                .toList();
+    }
+
+    /**
+     * @return The cart line, or null if no line has this id
+     * @throws RuntimeException if the line belongs to another customer
+     */
+    public CartItem getItem(Long customerId, Long cartItemId) {
+        CustomerCart cart = cart(customerId);
+        CartLine line = cart.byId(cartItemId);
+        if (line == null) {
+            checkNotOwnedByOther(cartItemId);
+            return null;
+        }
+        return line.toCartItem(cart.customer);
+    }
+
+    /**
+     * Lines, total and item count taken from one pass over the cached cart,
+     * so the three always agree with each other
+     */
+    public CartSummaryDto getSummary(Long customerId) {
+        CustomerCart cart = cart(customerId);
+        List<CartLine> lines = cart.lines.values().stream()
+                .sorted(Comparator.comparing(line -> line.id))
+                .toList();
+
+        List<CartItemDto> items = new ArrayList<>(lines.size());
+        BigDecimal total = BigDecimal.ZERO;
+        int itemCount = 0;
+        for (CartLine line : lines) {
+            CartItemDto dto = line.toDto(customerId);
+            items.add(dto);
+            total = total.add(dto.getTotalPrice());
+            itemCount += dto.getQuantity();
+        }
+        return new CartSummaryDto(items, total, itemCount);
+    }
+
+    public BigDecimal getTotal(Long customerId) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (CartLine line : cart(customerId).lines.values()) {
+            total = total.add(line.itemPrice.multiply(BigDecimal.valueOf(line.quantity.get())));
+        }
+        return total;
+    }
+
+    // ------------------ Writes ------------------
+
+    /**
+     * Add to the pending line for this item, creating it if needed (quantity capped at 99)
+     */
+    public CartItem add(Long customerId, String itemName, BigDecimal itemPrice, int quantity) {
+        CustomerCart cart = cart(customerId);
+        synchronized (cart) {
+            requireOpen(cart, customerId);
+            CartLine existing = cart.lines.get(itemName);
+            if (existing != null) {
+                existing.quantity.updateAndGet(current -> Math.min(current + quantity, 99));
+                markDirty(existing);
+                return existing.toCartItem(cart.customer);
+            }
+            // บรรทัดใหม่ต้อง insert ทันทีเพื่อให้ได้ id ที่หน้าเว็บใช้อ้างอิง
+            // Upsert: if another instance/tab already created the row, this adds to it instead of duplicating
+            cartItemRepository.upsertQuantity(customerId, itemName, itemPrice, quantity,
+                    CartItem.STATUS_PENDING, LocalDateTime.now());
+            CartItemDto saved = cartItemRepository
+                    .findDtoByCustomerIdAndItemNameAndStatus(customerId, itemName, CartItem.STATUS_PENDING)
+                    .orElseThrow(() -> new RuntimeException("Cart item not found"));
+            CartLine line = new CartLine(saved);
+            cart.lines.put(line.key, line);
+            return line.toCartItem(cart.customer);
+        }
+    }
+
+    public CartItem setQuantity(Long customerId, Long cartItemId, int quantity) {
+        CustomerCart cart = cart(customerId);
+        synchronized (cart) {
+            requireOpen(cart, customerId);
+            CartLine line = requireLine(cart, cartItemId);
+            line.quantity.set(quantity);
+            markDirty(line);
+            return line.toCartItem(cart.customer);
+        }
+    }
+
+    /**
+     * Change a line's quantity by delta, keeping it within 1..99
+     */
+    public CartItem adjustQuantity(Long customerId, Long cartItemId, int delta) {
+        CustomerCart cart = cart(customerId);
+        synchronized (cart) {
+            requireOpen(cart, customerId);
+            CartLine line = requireLine(cart, cartItemId);
+            line.quantity.updateAndGet(current -> {
+                int next = current + delta;
+                if (next > 99) throw new RuntimeException("Quantity cannot exceed 99");
+                if (next < 1) throw new RuntimeException("Quantity cannot be less than 1");
+                return next;
+            });
+            markDirty(line);
+            return line.toCartItem(cart.customer);
+        }
+    }
+
+    public void remove(Long customerId, Long cartItemId) {
+        CustomerCart cart = cart(customerId);
+        synchronized (cart) {
+            requireOpen(cart, customerId);
+            CartLine line = requireLine(cart, cartItemId);
+            cartItemRepository.deleteById(line.id);
+            cart.lines.remove(line.key);
+            dirtyLines.remove(line);
+        }
+    }
+
+    public void clear(Long customerId) {
+        CustomerCart cart = cart(customerId);
+        synchronized (cart) {
+            requireOpen(cart, customerId);
+            cartItemRepository.deleteByCustomerId(customerId);
+            dirtyLines.removeAll(cart.lines.values());
+            cart.lines.clear();
+        }
+    }
+
+    // ------------------ Checkout ------------------
+
+    /**
+     * Close a customer's cart for checkout. Call inside the checkout transaction, before it reads
+     * anything: writes the pending quantity changes, then rejects every change to the cart with
+     * {@link CartCheckoutInProgressException} until the transaction completes. On commit the cart
+     * is evicted, so the next access loads what is left; on rollback it is open again.
+     */
+    public void beginCheckout(Long customerId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Checkout must run inside a transaction");
+        }
+        CustomerCart cart;
+        // flushLock first: a scheduled write in flight commits before this transaction reads the cart
+        synchronized (flushLock) {
+            cart = cart(customerId);
+            synchronized (cart) {
+                requireOpen(cart, customerId);
+                writeDirty(cart.lines.values().stream().filter(dirtyLines::contains).toList());
+                cart.closed = true;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    // stays closed: a change that already holds this instance must not succeed
+                    if (carts.remove(customerId, cart)) {
+                        dirtyLines.removeAll(cart.lines.values());
+                    }
+                } else {
+                    synchronized (cart) {
+                        cart.closed = false;
+                    }
+                }
+            }
+        });
+    }
+
+    // ------------------ Flushing ------------------
+
+    /**
+     * Write one customer's pending quantity changes now, before code that changes cart_items
+     * directly. Fails like the other changes while the cart is being checked out.
+     */
+    public void flush(Long customerId) {
+        CustomerCart cart = carts.get(customerId);
+        if (cart != null) {
+            synchronized (flushLock) {
+                synchronized (cart) {
+                    requireOpen(cart, customerId);
+                    writeDirty(cart.lines.values().stream().filter(dirtyLines::contains).toList());
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget a customer's cart so the next access reloads it from the database
+     * (after checkout or after cart_items was changed directly). Inside a transaction this
+     * happens once it commits: a reload before that would read and cache the old rows again.
+     */
+    public void evict(Long customerId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(customerId);
+                }
+            });
+        } else {
+            evictNow(customerId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:2000}")
+    public void flushDirty() {
+        if (!dirtyLines.isEmpty()) {
+            writeDirty(new ArrayList<>(dirtyLines));
+        }
+        evictIdle();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flushDirty();
+    }
+
+    public int getDirtyCount() {
+        return dirtyLines.size();
+    }
+
+    public int getCachedCartCount() {
+        return carts.size();
+    }
+
+    /**
+     * Quantity changes whose row was gone when they were written
+     */
+    public long getLostLineCount() {
+        return lostLines.sum();
+    }
+
+    private void writeDirty(List<CartLine> lines) {
+        if (lines.isEmpty()) {
+            return;
+        }
+        synchronized (flushLock) {
+            writeDirtyLocked(lines);
+        }
+    }
+
+    private void writeDirtyLocked(List<CartLine> lines) {
+        List<CartLine> written = new ArrayList<>(lines.size());
+        List<Object[]> rows = new ArrayList<>(lines.size());
+        for (CartLine line : lines) {
+            // remove before reading: a change made after this point marks the line dirty again
+            if (dirtyLines.remove(line)) {
+                written.add(line);
+                rows.add(new Object[]{line.quantity.get(), Timestamp.valueOf(line.updatedAt), line.id});
+            }
+        }
+        try {
+            int[] counts = jdbcTemplate.batchUpdate(FLUSH_SQL, rows);
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] == 0) {
+                    dropLost(written.get(i));
+                }
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                // flushed inside a caller's transaction (checkout): if it rolls back, write again later
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        if (status == STATUS_ROLLED_BACK) {
+                            dirtyLines.addAll(lines);
+                        }
+                    }
+                });
+            }
+        } catch (RuntimeException e) {
+            // เขียนไม่สำเร็จ เก็บไว้ลองใหม่รอบหน้า
+            dirtyLines.addAll(lines);
+            logger.error("Failed to flush {} cart lines, will retry", rows.size(), e);
+        }
+    }
+
+    private void evictNow(Long customerId) {
+        CustomerCart cart = carts.remove(customerId);
+        if (cart != null) {
+            dirtyLines.removeAll(cart.lines.values());
+        }
+    }
+
+    // the row is gone (deleted by checkout or elsewhere): the change cannot be kept, say so
+    private void dropLost(CartLine line) {
+        lostLines.increment();
+        logger.warn("Cart line {} of customer {} no longer exists, quantity change to {} lost",
+                line.id, line.customerId, line.quantity.get());
+        CustomerCart cart = carts.get(line.customerId);
+        if (cart != null) {
+            cart.lines.remove(line.key, line);
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleEvictMs;
+        carts.entrySet().removeIf(entry -> entry.getValue().lastAccess < cutoff
+                && entry.getValue().lines.values().stream().noneMatch(dirtyLines::contains));
+    }
+
+    private void markDirty(CartLine line) {
+        line.updatedAt = LocalDateTime.now();
+        dirtyLines.add(line);
+    }
+
+    private CustomerCart cart(Long customerId) {
+        if (customerId == null) {
+            throw new RuntimeException("Customer ID is required");
+        }
+        CustomerCart cart = carts.get(customerId);
+        if (cart == null) {
+            // โหลดนอก map lock แล้วใช้ตัวที่เข้าไปก่อน
+            Customer customer = customers.get(customerId);
+            CustomerCart loaded = new CustomerCart(customer, cartItemRepository.findDtosByCustomerId(customerId));
+            cart = carts.computeIfAbsent(customerId, id -> loaded);
+        }
+        cart.lastAccess = System.currentTimeMillis();
+        return cart;
+    }
+
+    private static void requireOpen(CustomerCart cart, Long customerId) {
+        if (cart.closed) {
+            throw CartCheckoutInProgressException.forCustomer(customerId);
+        }
+    }
+
+    private CartLine requireLine(CustomerCart cart, Long cartItemId) {
+        CartLine line = cart.byId(cartItemId);
+        if (line == null) {
+            checkNotOwnedByOther(cartItemId);
+            throw new RuntimeException("Cart item not found");
+        }
+        return line;
+    }
+
+    private void checkNotOwnedByOther(Long cartItemId) {
+        if (cartItemId != null && cartItemRepository.existsById(cartItemId)) {
+            throw new RuntimeException("Access denied: Item does not belong to customer");
+        }
+    }
+
+    /**
+     * One customer's cart. Pending lines are keyed by item name; lines in any other status
+     * (rare, rows left from before checkout deleted cart lines) are keyed by name and status so they never collide.
+     */
+    private static final class CustomerCart {
+        private final Customer customer;
+        private final Map<String, CartLine> lines = new ConcurrentHashMap<>();
+        private volatile long lastAccess = System.currentTimeMillis();
+        // set under the cart lock while a checkout of this cart is in progress
+        private boolean closed;
+
+        private CustomerCart(Customer customer, List<CartItemDto> items) {
+            this.customer = customer;
+            for (CartItemDto item : items) {
+                CartLine line = new CartLine(item);
+                lines.putIfAbsent(line.key, line);
+            }
+        }
+
+        private CartLine byId(Long cartItemId) {
+            for (CartLine line : lines.values()) {
+                if (line.id.equals(cartItemId)) {
+                    return line;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class CartLine {
+        private final Long id;
+        private final Long customerId;
+        private final String key;
+        private final String itemName;
+        private final BigDecimal itemPrice;
+        private final String status;
+        private final LocalDateTime createdAt;
+        private final AtomicInteger quantity;
+        private volatile LocalDateTime updatedAt;
+
+        private CartLine(CartItemDto item) {
+            this.id = item.getId();
+            this.customerId = item.getCustomerId();
+            this.itemName = item.getItemName();
+            this.itemPrice = item.getItemPrice();
+            this.status = item.getStatus();
+            this.key = CartItem.STATUS_PENDING.equals(status) ? itemName : itemName + "|" + status;
+            this.createdAt = item.getCreatedAt();
+            this.updatedAt = item.getUpdatedAt() != null ? item.getUpdatedAt() : LocalDateTime.now();
+            this.quantity = new AtomicInteger(item.getQuantity());
+        }
+
+        private CartItem toCartItem(Customer customer) {
+            CartItem item = new CartItem();
+            item.setId(id);
+            item.setCustomer(customer);
+            item.setItemName(itemName);
+            item.setItemPrice(itemPrice);
+            item.setQuantity(quantity.get());
+            item.setStatus(status);
+            item.setCreatedAt(createdAt);
+            item.setUpdatedAt(updatedAt);
+            return item;
+        }
+
+        private CartItemDto toDto(Long customerId) {
+            int currentQuantity = quantity.get();
+            return new CartItemDto(id, customerId, itemName, itemPrice, currentQuantity,
+                    itemPrice.multiply(BigDecimal.valueOf(currentQuantity)), status, createdAt, updatedAt);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.restaurant.demo.service.customer;
+
+import com.restaurant.demo.model.Customer;
+import com.restaurant.demo.repository.CustomerRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Small bounded cache from customer id to the (detached) Customer row.
+ *
+ * Cart calls only need the customer to check it exists and to attach it to cart lines, so
+ * resolving it here lets them skip the customers SELECT after the first hit. Least recently
+ * used entries are dropped once customer.identity-cache.max-entries is reached. Anything that
+ * changes a customer row must call {@link #evict(Long)}.
+ */
+@Component
+public class CustomerIdentityCache {
+
+    private final CustomerRepository customerRepository;
+    private final Map<Long, Customer> customers;
+
+    public CustomerIdentityCache(CustomerRepository customerRepository,
+                                 @Value("${customer.identity-cache.max-entries:10000}") int maxEntries) {
+        this.customerRepository = customerRepository;
+        this.customers = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Customer> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @throws RuntimeException if no customer has this id
+     */
+    public Customer get(Long customerId) {
+        if (customerId == null) {
+            throw new RuntimeException("Customer ID is required");
+        }
+        synchronized (customers) {
+            Customer cached = customers.get(customerId);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        // โหลดนอก lock ถ้าสอง request พลาดพร้อมกันก็แค่ SELECT ซ้ำหนึ่งครั้ง
+        Customer customer = customerRepository.findById(customerId)
+                .orElseThrow(() -> new RuntimeException("Customer not found with ID: " + customerId));
+        synchronized (customers) {
+            customers.putIfAbsent(customerId, customer);
+            return customers.get(customerId);
+        }
+    }
+
+    public void evict(Long customerId) {
+        synchronized (customers) {
+            customers.remove(customerId);
+        }
+    }
+}
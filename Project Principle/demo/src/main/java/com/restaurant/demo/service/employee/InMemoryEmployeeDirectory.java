@@ -5,18 +5,18 @@ import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Component
 //@Profile("test") // Only use this in-memory implementation for testing, not in production
 public class InMemoryEmployeeDirectory implements EmployeeDirectory {
 
-    private final Map<Long, Employee> employees = new ConcurrentHashMap<>();
+    // kept sorted by id so findAll is a plain copy instead of a sort per call
+    private final NavigableMap<Long, Employee> employees = new ConcurrentSkipListMap<>();
     private final AtomicInteger sequence;
 
     public InMemoryEmployeeDirectory() {
@@ -24,15 +24,13 @@ public class InMemoryEmployeeDirectory implements EmployeeDirectory {
         Employee employeeTwo = new Employee(2L, "Employee Two", "Cashier");
         employees.put(employeeOne.getId(), employeeOne);
         employees.put(employeeTwo.getId(), employeeTwo);
-        long maxId = employees.keySet().stream().max(Long::compareTo).orElse(0L);
+        long maxId = employees.isEmpty() ? 0L : employees.lastKey();
         this.sequence = new AtomicInteger((int) maxId);
     }
 
     @Override
     public List<Employee> findAll() {
-        return employees.values().stream()
-                .sorted(Comparator.comparingLong(Employee::getId))
-                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        return new ArrayList<>(employees.values());
     }
 
     @Override
@@ -1,114 +1,271 @@
 package com.restaurant.demo.service.impl;
 
 import com.restaurant.demo.dto.ReportSummary;
+import com.restaurant.demo.exception.ServiceBusyException;
 import com.restaurant.demo.service.ReportService;
-import jakarta.persistence.EntityManager;
-import jakarta.persistence.PersistenceContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import javax.sql.DataSource;
 import java.math.BigDecimal;
-import java.time.YearMonth;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Monthly report from the sales_daily rollups.
+ *
+ * The monthly series and the top menu item are independent queries, so they run at the same
+ * time on a small reporting pool, each on its own pooled connection, and are joined into the
+ * ReportSummary. The whole report has report.deadline-ms to finish: queries still running then
+ * are cancelled with Statement.cancel() (interrupting the thread does not stop a MySQL query)
+ * and the caller gets {@link ServiceBusyException} (503). Each statement also gets the time left
+ * until the deadline as its JDBC query timeout, as a backstop.
+ */
 @Service
-@Transactional
 public class ReportServiceImpl implements ReportService {
 
-    @PersistenceContext
-    private EntityManager entityManager;
+    private static final Logger logger = LoggerFactory.getLogger(ReportServiceImpl.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolExecutor executor;
+    private final long deadlineMs;
+
+    public ReportServiceImpl(DataSource dataSource,
+                             @Value("${report.threads:4}") int threads,
+                             @Value("${report.queue-capacity:32}") int queueCapacity,
+                             @Value("${report.deadline-ms:5000}") long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "report-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
 
     @Override
     public ReportSummary getMonthlyReport(Integer month, Integer year) {
         if (year == null) {
-            year = java.time.LocalDate.now().getYear();
+            year = LocalDate.now().getYear();
         }
 
         // ถ้าเลือก “ทั้งปี” (month == null หรือ 0)
         boolean isWholeYear = (month == null || month == 0);
 
-        // 🔹 1. ยอดขายรวม
-        String totalRevenueSql = """
-            SELECT COALESCE(SUM(o.total_amount), 0)
-            FROM orders o
-            WHERE o.status = 'FINISH'
-            AND YEAR(o.created_at) = :year
-            """ + (isWholeYear ? "" : " AND MONTH(o.created_at) = :month");
-
-        var totalRevenueQuery = entityManager.createNativeQuery(totalRevenueSql)
-                .setParameter("year", year);
-        if (!isWholeYear) totalRevenueQuery.setParameter("month", month);
-        BigDecimal totalRevenue = (BigDecimal) totalRevenueQuery.getSingleResult();
-
-        // 🔹 2. จำนวนออเดอร์ทั้งหมด
-        String totalOrdersSql = """
-            SELECT COUNT(*)
-            FROM orders o
-            WHERE o.status = 'FINISH'
-            AND YEAR(o.created_at) = :year
-            """ + (isWholeYear ? "" : " AND MONTH(o.created_at) = :month");
-
-        var totalOrdersQuery = entityManager.createNativeQuery(totalOrdersSql)
-                .setParameter("year", year);
-        if (!isWholeYear) totalOrdersQuery.setParameter("month", month);
-        long totalOrders = ((Number) totalOrdersQuery.getSingleResult()).longValue();
-
-        // 🔹 3. เมนูขายดีที่สุด
-        String topMenuSql = """
-            SELECT oi.item_name, SUM(oi.quantity) AS total_sold
-            FROM order_items oi
-            JOIN orders o ON oi.order_id = o.id
-            WHERE o.status = 'FINISH'
-            AND YEAR(o.created_at) = :year
-            """ + (isWholeYear ? "" : " AND MONTH(o.created_at) = :month") + """
-            GROUP BY oi.item_name
-            ORDER BY total_sold DESC
-            LIMIT 1
-        """;
-
-        var topMenuQuery = entityManager.createNativeQuery(topMenuSql)
-                .setParameter("year", year);
-        if (!isWholeYear) topMenuQuery.setParameter("month", month);
-
-        String topMenu = "-";
-        long topCount = 0;
-        List<Object[]> topResult = topMenuQuery.getResultList();
-        if (!topResult.isEmpty()) {
-            Object[] row = topResult.get(0);
-            topMenu = Optional.ofNullable(row[0]).map(Object::toString).orElse("-");
-            topCount = ((Number) row[1]).longValue();
+        // ช่วงวันที่ [from, to) บน sales_daily (primary key range scan แทน YEAR()/MONTH())
+        LocalDate yearStart = LocalDate.of(year, 1, 1);
+        LocalDate from = isWholeYear ? yearStart : LocalDate.of(year, month, 1);
+        LocalDate to = isWholeYear ? from.plusYears(1) : from.plusMonths(1);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        QueryHandle seriesQuery = new QueryHandle();
+        QueryHandle topMenuQuery = new QueryHandle();
+        Future<MonthlySeries> seriesFuture = submit(() -> loadMonthlySeries(yearStart, seriesQuery, deadline));
+        Future<TopMenu> topMenuFuture;
+        try {
+            topMenuFuture = submit(() -> loadTopMenu(from, to, topMenuQuery, deadline));
+        } catch (ServiceBusyException e) {
+            seriesFuture.cancel(true);
+            seriesQuery.cancel();
+            throw e;
+        }
+
+        MonthlySeries series;
+        TopMenu top;
+        try {
+            series = await(seriesFuture, deadline);
+            top = await(topMenuFuture, deadline);
+        } finally {
+            // ถ้าอันใดอันหนึ่งล้มเหลวหรือหมดเวลา ยกเลิกที่เหลือทันที (ทั้งงานที่ยังรอคิวและ query ที่กำลังรัน)
+            seriesFuture.cancel(true);
+            topMenuFuture.cancel(true);
+            seriesQuery.cancel();
+            topMenuQuery.cancel();
         }
 
-        // 🔹 4. ยอดขายรายเดือน (เพื่อใช้ทำกราฟ)
-        String monthlySalesSql = """
-            SELECT MONTH(o.created_at), COALESCE(SUM(o.total_amount), 0)
-            FROM orders o
-            WHERE o.status = 'FINISH'
-            AND YEAR(o.created_at) = :year
-            GROUP BY MONTH(o.created_at)
-            ORDER BY MONTH(o.created_at)
-        """;
-
-        var monthlySalesQuery = entityManager.createNativeQuery(monthlySalesSql)
-                .setParameter("year", year);
-        List<Object[]> monthlySalesResult = monthlySalesQuery.getResultList();
-
-        List<BigDecimal> monthlySales = new ArrayList<>();
-        for (int i = 1; i <= 12; i++) {
-            BigDecimal value = BigDecimal.ZERO;
-            for (Object[] row : monthlySalesResult) {
-                int m = ((Number) row[0]).intValue();
-                if (m == i) {
-                    value = (BigDecimal) row[1];
-                    break;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        long totalOrders = 0;
+        for (int i = from.getMonthValue() - 1; i < (isWholeYear ? 12 : month); i++) {
+            totalRevenue = totalRevenue.add(series.totals()[i]);
+            totalOrders += series.orders()[i];
+        }
+        List<BigDecimal> monthlySales = new ArrayList<>(Arrays.asList(series.totals()));
+
+        // 🔹 รวมข้อมูลทั้งหมดลงใน DTO
+        return new ReportSummary(totalRevenue, totalOrders, top.name(), top.count(), monthlySales);
+    }
+
+    /**
+     * 🔹 1. ยอดขาย + จำนวนออเดอร์รายเดือนทั้งปี ใน scan เดียว
+     *    ยอดรวม/จำนวนออเดอร์ของช่วงที่เลือกคำนวณจากผลลัพธ์นี้ ไม่ต้อง query ซ้ำ
+     */
+    private MonthlySeries loadMonthlySeries(LocalDate yearStart, QueryHandle handle, long deadline) {
+        BigDecimal[] monthlyTotals = new BigDecimal[12];
+        long[] monthlyOrders = new long[12];
+        Arrays.fill(monthlyTotals, BigDecimal.ZERO);
+        query(handle, deadline, """
+            SELECT MONTH(s.sales_date), SUM(s.revenue), SUM(s.order_count)
+            FROM sales_daily s
+            WHERE s.sales_date >= ? AND s.sales_date < ?
+            GROUP BY MONTH(s.sales_date)
+            """,
+                rs -> {
+                    while (rs.next()) {
+                        int index = rs.getInt(1) - 1;
+                        monthlyTotals[index] = toBigDecimal(rs.getObject(2));
+                        monthlyOrders[index] = rs.getLong(3);
+                    }
+                    return null;
+                },
+                yearStart, yearStart.plusYears(1));
+        return new MonthlySeries(monthlyTotals, monthlyOrders);
+    }
+
+    /**
+     * 🔹 2. เมนูขายดีที่สุด (window function, เสมอกันให้เรียงตามชื่อเมนู)
+     */
+    private TopMenu loadTopMenu(LocalDate from, LocalDate to, QueryHandle handle, long deadline) {
+        return query(handle, deadline, """
+            SELECT ranked.item_name, ranked.total_sold
+            FROM (
+                SELECT si.item_name, SUM(si.quantity) AS total_sold,
+                       ROW_NUMBER() OVER (ORDER BY SUM(si.quantity) DESC, si.item_name) AS rn
+                FROM sales_daily_item si
+                WHERE si.sales_date >= ? AND si.sales_date < ?
+                GROUP BY si.item_name
+            ) ranked
+            WHERE ranked.rn = 1
+            """,
+                rs -> rs.next()
+                        ? new TopMenu(Optional.ofNullable(rs.getString(1)).orElse("-"), rs.getLong(2))
+                        : new TopMenu("-", 0),
+                from, to);
+    }
+
+    /**
+     * Run one report query with the time left until the deadline as its query timeout, keeping
+     * its statement in the handle while it executes so the caller can cancel it
+     */
+    private <T> T query(QueryHandle handle, long deadline, String sql, ResultSetExtractor<T> extractor,
+                        Object... args) {
+        PreparedStatementCreator creator = connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            statement.setQueryTimeout((int) Math.max(1, (remainingMs + 999) / 1000));
+            new ArgumentPreparedStatementSetter(args).setValues(statement);
+            return statement;
+        };
+        return jdbcTemplate.execute(creator, statement -> {
+            handle.started(statement);
+            try (ResultSet rs = statement.executeQuery()) {
+                return extractor.extractData(rs);
+            } finally {
+                // ก่อนคืน connection เข้า pool: cancel หลังจากนี้ต้องไม่ไปโดน query อื่นบน connection เดียวกัน
+                handle.finished();
+            }
+        });
+    }
+
+    private <T> Future<T> submit(Callable<T> query) {
+        try {
+            return executor.submit(query);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Report executor saturated ({} queued), rejecting report", executor.getQueue().size());
+            throw ServiceBusyException.forReport();
+        }
+    }
+
+    private <T> T await(Future<T> future, long deadline) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Monthly report exceeded its {} ms deadline, cancelling", deadlineMs);
+            throw ServiceBusyException.forReport();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ServiceBusyException.forReport();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Report query failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal;
+        }
+        return value != null ? new BigDecimal(value.toString()) : BigDecimal.ZERO;
+    }
+
+    /**
+     * The statement a report query is executing, if any. Cancelling before the query starts
+     * stops it from starting; cancelling after it finished does nothing.
+     */
+    private static final class QueryHandle {
+
+        private Statement statement;
+        private boolean cancelled;
+
+        synchronized void started(Statement statement) throws SQLException {
+            if (cancelled) {
+                throw new SQLException("Report query cancelled");
+            }
+            this.statement = statement;
+        }
+
+        synchronized void finished() {
+            statement = null;
+        }
+
+        synchronized void cancel() {
+            cancelled = true;
+            if (statement != null) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    logger.debug("Could not cancel report query", e);
                 }
             }
-            monthlySales.add(value);
         }
+    }
 
-        // 🔹 รวมข้อมูลทั้งหมดลงใน DTO
-        return new ReportSummary(totalRevenue, totalOrders, topMenu, topCount, monthlySales);
+    private record MonthlySeries(BigDecimal[] totals, long[] orders) {
+    }
+
+    private record TopMenu(String name, long count) {
     }
 }
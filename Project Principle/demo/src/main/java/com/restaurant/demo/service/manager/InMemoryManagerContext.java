@@ -17,9 +17,6 @@ public class InMemoryManagerContext implements ManagerContext {
 
     @Override
     public User getCurrentManager() {
-        return userDirectory.findAll().stream()
-                .filter(user -> "manager".equalsIgnoreCase(user.getRole()))
-                .findFirst()
-                .orElse(null);
+        return userDirectory.findFirstByRole("manager").orElse(null);
     }
 }
@@ -0,0 +1,16 @@
+package com.restaurant.demo.service.menu;
+
+import com.restaurant.demo.model.MenuItem;
+
+/**
+ * Immutable copy of a menu item as served from the menu snapshot; serialized with the same
+ * JSON fields as the MenuItem entity
+ */
+public record MenuItemView(Long id, String category, String name, double price, String description,
+                           boolean active) {
+
+    public static MenuItemView of(MenuItem item) {
+        return new MenuItemView(item.getId(), item.getCategory(), item.getName(), item.getPrice(),
+                item.getDescription(), item.isActive());
+    }
+}
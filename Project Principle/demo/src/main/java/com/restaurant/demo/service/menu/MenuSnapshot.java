@@ -0,0 +1,89 @@
+package com.restaurant.demo.service.menu;
+
+import com.restaurant.demo.model.MenuItem;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable view of the menu held by MenuItemService between menu changes.
+ * Holds copies of the items, not the managed entities, and carries an ETag per list so
+ * unchanged menus can be answered with 304.
+ */
+public final class MenuSnapshot {
+
+    private final List<MenuItemView> allItems;
+    private final List<MenuItemView> activeItems;
+    private final Map<Long, MenuItemView> itemsById;
+    private final String allItemsEtag;
+    private final String activeItemsEtag;
+
+    public MenuSnapshot(List<MenuItem> items) {
+        this.allItems = items.stream().map(MenuItemView::of).toList();
+        this.activeItems = allItems.stream().filter(MenuItemView::active).toList();
+
+        Map<Long, MenuItemView> byId = new LinkedHashMap<>();
+        for (MenuItemView item : allItems) {
+            byId.put(item.id(), item);
+        }
+        this.itemsById = Map.copyOf(byId);
+
+        this.allItemsEtag = etagOf("all", allItems);
+        this.activeItemsEtag = etagOf("active", activeItems);
+    }
+
+    public List<MenuItemView> getAllItems() {
+        return allItems;
+    }
+
+    public List<MenuItemView> getActiveItems() {
+        return activeItems;
+    }
+
+    public MenuItemView getItem(Long id) {
+        return itemsById.get(id);
+    }
+
+    public String getAllItemsEtag() {
+        return allItemsEtag;
+    }
+
+    public String getActiveItemsEtag() {
+        return activeItemsEtag;
+    }
+
+    // ETag = SHA-256 ของเนื้อหาเมนู จึงเหมือนกันทุก instance และหลัง restart และไม่ชนกันแบบ hash 32 บิต
+    private static String etagOf(String view, List<MenuItemView> items) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        update(digest, view);
+        for (MenuItemView item : items) {
+            update(digest, String.valueOf(item.id()));
+            update(digest, item.category());
+            update(digest, item.name());
+            update(digest, Double.toString(item.price()));
+            update(digest, item.description());
+            update(digest, Boolean.toString(item.active()));
+        }
+        return "\"menu-" + view + "-" + HexFormat.of().formatHex(digest.digest()) + "\"";
+    }
+
+    // length-prefixed, so ("ab", "c") and ("a", "bc") differ; -1 marks null
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+        int length = bytes != null ? bytes.length : -1;
+        digest.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+        if (bytes != null) {
+            digest.update(bytes);
+        }
+    }
+}
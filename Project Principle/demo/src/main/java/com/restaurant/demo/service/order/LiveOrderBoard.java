@@ -0,0 +1,217 @@
+package com.restaurant.demo.service.order;
+
+import com.restaurant.demo.dto.OrderPageDto;
+import com.restaurant.demo.dto.OrderResponseDto;
+import com.restaurant.demo.model.OrderStatus;
+import com.restaurant.demo.service.OrderService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory board of the orders the kitchen works on (Pending and In Progress).
+ *
+ * Loaded from the database once the application is ready, then kept current from the
+ * OrderEvents OrderService publishes after each commit; orders leave the board when they reach
+ * Finish or Cancelled. The employee list, detail and pending-count endpoints read from here.
+ * A scheduled reconciliation reloads the active orders and repairs any entry that drifted,
+ * skipping orders an event touched while the reload was running.
+ *
+ * Writes are serialized on the board; reads are lock-free.
+ */
+@Service
+public class LiveOrderBoard {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveOrderBoard.class);
+
+    // same order as the keyset queries: newest first, id breaks ties
+    private static final Comparator<OrderCursor> NEWEST_FIRST = Comparator
+            .comparing(OrderCursor::getCreatedAt, Comparator.reverseOrder())
+            .thenComparing(OrderCursor::getId, Comparator.reverseOrder());
+
+    private final OrderService orderService;
+
+    private final Map<Long, OrderResponseDto> byId = new ConcurrentHashMap<>();
+    private final Map<OrderStatus, ConcurrentNavigableMap<OrderCursor, OrderResponseDto>> byStatus =
+            new EnumMap<>(OrderStatus.class);
+
+    // event sequence, and the sequence of the last event per order since the last reconciliation
+    private long sequence;
+    private final Map<Long, Long> touched = new HashMap<>();
+
+    private volatile boolean ready;
+
+    public LiveOrderBoard(OrderService orderService) {
+        this.orderService = orderService;
+        byStatus.put(OrderStatus.PENDING, new ConcurrentSkipListMap<>(NEWEST_FIRST));
+        byStatus.put(OrderStatus.IN_PROGRESS, new ConcurrentSkipListMap<>(NEWEST_FIRST));
+    }
+
+    /**
+     * Whether the board holds this status (only non-terminal statuses are kept)
+     */
+    public static boolean isActive(OrderStatus status) {
+        return status == OrderStatus.PENDING || status == OrderStatus.IN_PROGRESS;
+    }
+
+    /**
+     * False until the first load has finished; callers fall back to the database meanwhile
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * One page of orders with an active status, newest first, with the same cursors as
+     * OrderService.getOrdersByStatusPage
+     *
+     * @throws IllegalArgumentException if the status is not an active one or the cursor is malformed
+     */
+    public OrderPageDto page(OrderStatus status, String cursor, int limit) {
+        if (!isActive(status)) {
+            throw new IllegalArgumentException("Status is not on the live board: " + status);
+        }
+        OrderCursor position = OrderCursor.decode(cursor);
+        List<OrderResponseDto> orders = new ArrayList<>(limit);
+        OrderCursor last = null;
+        boolean hasMore = false;
+        for (Map.Entry<OrderCursor, OrderResponseDto> entry : byStatus.get(status).tailMap(position, false).entrySet()) {
+            if (orders.size() == limit) {
+                hasMore = true;
+                break;
+            }
+            orders.add(entry.getValue());
+            last = entry.getKey();
+        }
+        return new OrderPageDto(orders, hasMore ? last.encode() : null);
+    }
+
+    /**
+     * Every order with an active status, newest first (the unpaginated listing)
+     *
+     * @throws IllegalArgumentException if the status is not an active one
+     */
+    public List<OrderResponseDto> all(OrderStatus status) {
+        if (!isActive(status)) {
+            throw new IllegalArgumentException("Status is not on the live board: " + status);
+        }
+        return new ArrayList<>(byStatus.get(status).values());
+    }
+
+    /**
+     * An active order by id; empty for unknown, finished and cancelled orders
+     */
+    public Optional<OrderResponseDto> get(Long orderId) {
+        return Optional.ofNullable(byId.get(orderId));
+    }
+
+    public int count(OrderStatus status) {
+        return isActive(status) ? byStatus.get(status).size() : 0;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        reconcile();
+        ready = true;
+        logger.info("Live order board loaded: {} pending, {} in progress",
+                count(OrderStatus.PENDING), count(OrderStatus.IN_PROGRESS));
+    }
+
+    /**
+     * Apply a committed order change
+     *
+     * @param event The order event raised by OrderService
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public synchronized void onOrderEvent(OrderEvent event) {
+        OrderResponseDto order = event.getOrder();
+        touched.put(order.getOrderId(), ++sequence);
+        put(order);
+    }
+
+    /**
+     * Reload active orders from the database and repair entries that drifted
+     *
+     * @return Number of orders that were missing, stale or should not have been on the board
+     */
+    @Scheduled(initialDelayString = "${order.board.reconcile-interval-ms:60000}",
+            fixedDelayString = "${order.board.reconcile-interval-ms:60000}")
+    public int reconcile() {
+        long startSequence;
+        synchronized (this) {
+            startSequence = sequence;
+        }
+
+        Map<Long, OrderResponseDto> snapshot = new HashMap<>();
+        for (OrderStatus status : byStatus.keySet()) {
+            for (OrderResponseDto order : orderService.getAllOrdersByStatus(status.getValue())) {
+                snapshot.put(order.getOrderId(), order);
+            }
+        }
+
+        int drift = 0;
+        synchronized (this) {
+            Set<Long> ids = new HashSet<>(byId.keySet());
+            ids.addAll(snapshot.keySet());
+            for (Long id : ids) {
+                Long lastEvent = touched.get(id);
+                if (lastEvent != null && lastEvent > startSequence) {
+                    // เปลี่ยนหลังจากเริ่มโหลด ข้อมูลบนบอร์ดใหม่กว่า snapshot
+                    continue;
+                }
+                OrderResponseDto current = byId.get(id);
+                OrderResponseDto fresh = snapshot.get(id);
+                if (current == null || fresh == null || !current.getStatus().equals(fresh.getStatus())) {
+                    drift++;
+                }
+                if (fresh != null) {
+                    put(fresh);
+                } else {
+                    remove(id);
+                }
+            }
+            touched.values().removeIf(lastEvent -> lastEvent <= startSequence);
+        }
+        if (drift > 0 && ready) {
+            logger.warn("Live order board reconciled {} drifted orders", drift);
+        }
+        return drift;
+    }
+
+    // caller holds the board lock
+    private void put(OrderResponseDto order) {
+        remove(order.getOrderId());
+        OrderStatus status = OrderStatus.fromValue(order.getStatus());
+        if (isActive(status)) {
+            byId.put(order.getOrderId(), order);
+            byStatus.get(status).put(new OrderCursor(order.getCreatedAt(), order.getOrderId()), order);
+        }
+    }
+
+    // caller holds the board lock
+    private void remove(Long orderId) {
+        OrderResponseDto previous = byId.remove(orderId);
+        if (previous != null) {
+            byStatus.get(OrderStatus.fromValue(previous.getStatus()))
+                    .remove(new OrderCursor(previous.getCreatedAt(), orderId));
+        }
+    }
+}
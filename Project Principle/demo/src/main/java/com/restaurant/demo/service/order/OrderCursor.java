@@ -0,0 +1,67 @@
+package com.restaurant.demo.service.order;
+
+import com.restaurant.demo.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over (created_at, id) used for order pagination.
+ * Encoded as URL-safe Base64 of "createdAt|id" so clients treat it as a token.
+ */
+public final class OrderCursor {
+
+    // จุดเริ่มต้นของหน้าแรก (มากกว่าทุกแถวในตาราง orders)
+    public static final OrderCursor START =
+            new OrderCursor(LocalDateTime.of(9999, 12, 31, 23, 59, 59), Long.MAX_VALUE);
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+    private final Long id;
+
+    public OrderCursor(LocalDateTime createdAt, Long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    /**
+     * Decode a cursor received from a client
+     *
+     * @param token The cursor token (null or blank means first page)
+     * @return Decoded cursor
+     * @throws InvalidCursorException if the token is malformed
+     */
+    public static OrderCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            if (separatorIndex <= 0) {
+                throw new InvalidCursorException(token);
+            }
+            LocalDateTime createdAt = LocalDateTime.parse(raw.substring(0, separatorIndex));
+            Long id = Long.valueOf(raw.substring(separatorIndex + 1));
+            return new OrderCursor(createdAt, id);
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new InvalidCursorException(token);
+        }
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
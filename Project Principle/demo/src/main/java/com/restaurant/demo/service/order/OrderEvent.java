@@ -0,0 +1,58 @@
+package com.restaurant.demo.service.order;
+
+import com.restaurant.demo.dto.OrderResponseDto;
+
+/**
+ * In-process event raised by OrderService whenever an order is created or
+ * changes status. Published through Spring's ApplicationEventPublisher so
+ * listeners (kitchen feed, live board, counters) stay decoupled from the
+ * order write path.
+ */
+public class OrderEvent {
+
+    public enum Type {
+        CREATED("order-created"),
+        STATUS_CHANGED("order-status-changed");
+
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        // ชื่อ event ที่ส่งไปยัง EventSource ฝั่ง browser
+        public String getEventName() {
+            return eventName;
+        }
+    }
+
+    private final Type type;
+    private final OrderResponseDto order;
+    private final String previousStatus;
+
+    public OrderEvent(Type type, OrderResponseDto order, String previousStatus) {
+        this.type = type;
+        this.order = order;
+        this.previousStatus = previousStatus;
+    }
+
+    public static OrderEvent created(OrderResponseDto order) {
+        return new OrderEvent(Type.CREATED, order, null);
+    }
+
+    public static OrderEvent statusChanged(OrderResponseDto order, String previousStatus) {
+        return new OrderEvent(Type.STATUS_CHANGED, order, previousStatus);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public OrderResponseDto getOrder() {
+        return order;
+    }
+
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+}
@@ -0,0 +1,89 @@
+package com.restaurant.demo.service.order;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Server-Sent Events feed for kitchen tablets.
+ * Replaces the 30-second pending-count polling: every connected tablet
+ * receives order-created / order-status-changed events right after the
+ * order transaction commits.
+ */
+@Service
+public class OrderFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderFeedService.class);
+
+    // 30 นาที แล้ว EventSource ฝั่ง browser จะ reconnect เอง
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+    /**
+     * Register a new subscriber (one per open employee-orders page)
+     *
+     * @return SseEmitter bound to the HTTP response
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(e -> emitters.remove(emitter));
+        emitters.add(emitter);
+
+        logger.info("Order feed subscriber connected, active subscribers: {}", emitters.size());
+        return emitter;
+    }
+
+    /**
+     * Broadcast order events to all subscribers once the order transaction has committed,
+     * so tablets never see an order that was rolled back.
+     *
+     * @param event The order event raised by OrderService
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        broadcast(SseEmitter.event()
+                .name(event.getType().getEventName())
+                .data(event.getOrder()));
+    }
+
+    /**
+     * Comment-only heartbeat so idle connections are not dropped by proxies
+     */
+    @Scheduled(fixedRate = 25000)
+    public void heartbeat() {
+        if (!emitters.isEmpty()) {
+            broadcast(SseEmitter.event().comment("keep-alive"));
+        }
+    }
+
+    public int getSubscriberCount() {
+        return emitters.size();
+    }
+
+    private void broadcast(SseEmitter.SseEventBuilder event) {
+        // build once: build() appends the closing blank line to the builder every time it is called
+        Set<ResponseBodyEmitter.DataWithMediaType> data = event.build();
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(data);
+            } catch (IOException | IllegalStateException e) {
+                // client ปิดหน้าไปแล้ว
+                emitters.remove(emitter);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
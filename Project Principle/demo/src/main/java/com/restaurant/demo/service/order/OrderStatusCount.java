@@ -0,0 +1,9 @@
+package com.restaurant.demo.service.order;
+
+import com.restaurant.demo.model.OrderStatus;
+
+/**
+ * One row of the orders-per-status GROUP BY
+ */
+public record OrderStatusCount(OrderStatus status, Long count) {
+}
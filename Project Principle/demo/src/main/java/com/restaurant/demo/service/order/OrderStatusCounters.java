@@ -0,0 +1,146 @@
+package com.restaurant.demo.service.order;
+
+import com.restaurant.demo.model.OrderStatus;
+import com.restaurant.demo.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Number of orders in each status, kept in memory for the dashboard and polling endpoints.
+ *
+ * Seeded from a GROUP BY once the application is ready, then moved by the OrderEvents
+ * OrderService publishes after each commit (created: +1 on the new status; status changed: -1 on
+ * the previous status, +1 on the new one). A scheduled verification re-runs the GROUP BY and
+ * corrects any counter that drifted; a round in which events arrived during the query is skipped,
+ * since the result could not be compared with the counters. Seeding uses the same check and
+ * retries until a round is clean, so it never applies a count that misses a committed change.
+ */
+@Service
+public class OrderStatusCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusCounters.class);
+    private static final long SEED_RETRY_MS = 50;
+
+    private final OrderRepository orderRepository;
+    private final Map<OrderStatus, LongAdder> counts = new EnumMap<>(OrderStatus.class);
+    private final LongAdder events = new LongAdder();
+
+    private volatile boolean ready;
+
+    public OrderStatusCounters(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+        for (OrderStatus status : OrderStatus.values()) {
+            counts.put(status, new LongAdder());
+        }
+    }
+
+    /**
+     * False until the first GROUP BY has been applied; callers count in the database meanwhile
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public long count(OrderStatus status) {
+        return counts.get(status).sum();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        int rounds = 1;
+        while (correctIfUnchanged() < 0) {
+            rounds++;
+            try {
+                Thread.sleep(SEED_RETRY_MS);
+            } catch (InterruptedException e) {
+                // not ready: callers keep counting in the database
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        ready = true;
+        logger.info("Order status counters seeded after {} round(s): {}", rounds, snapshot());
+    }
+
+    /**
+     * Apply a committed order change
+     *
+     * @param event The order event raised by OrderService
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderEvent(OrderEvent event) {
+        events.increment();
+        if (event.getType() == OrderEvent.Type.STATUS_CHANGED && event.getPreviousStatus() != null) {
+            counts.get(OrderStatus.fromValue(event.getPreviousStatus())).decrement();
+        }
+        counts.get(OrderStatus.fromValue(event.getOrder().getStatus())).increment();
+    }
+
+    /**
+     * Compare the counters with the database and correct them
+     *
+     * @return Total absolute drift corrected, or -1 if the round was skipped because orders changed meanwhile
+     */
+    @Scheduled(initialDelayString = "${order.counters.verify-interval-ms:300000}",
+            fixedDelayString = "${order.counters.verify-interval-ms:300000}")
+    public long verify() {
+        long drift = correctIfUnchanged();
+        if (drift < 0) {
+            logger.debug("Order status counters verification skipped, orders changed during the query");
+        } else if (drift > 0) {
+            logger.warn("Order status counters corrected by {} after verification: {}", drift, snapshot());
+        }
+        return drift;
+    }
+
+    // an event between load and correct would be counted twice or not at all, so skip such a round
+    private long correctIfUnchanged() {
+        long eventsBefore = events.sum();
+        Map<OrderStatus, Long> actual = load();
+        if (events.sum() != eventsBefore) {
+            return -1;
+        }
+        return correct(actual);
+    }
+
+    private Map<OrderStatus, Long> load() {
+        Map<OrderStatus, Long> actual = new EnumMap<>(OrderStatus.class);
+        for (OrderStatus status : OrderStatus.values()) {
+            actual.put(status, 0L);
+        }
+        for (OrderStatusCount row : orderRepository.countGroupedByStatus()) {
+            actual.put(row.status(), row.count());
+        }
+        return actual;
+    }
+
+    // add the difference instead of reset(): an increment racing with this is kept, not lost
+    private long correct(Map<OrderStatus, Long> actual) {
+        long drift = 0;
+        for (Map.Entry<OrderStatus, Long> entry : actual.entrySet()) {
+            LongAdder counter = counts.get(entry.getKey());
+            long delta = entry.getValue() - counter.sum();
+            if (delta != 0) {
+                counter.add(delta);
+                drift += Math.abs(delta);
+            }
+        }
+        return drift;
+    }
+
+    private Map<OrderStatus, Long> snapshot() {
+        Map<OrderStatus, Long> snapshot = new EnumMap<>(OrderStatus.class);
+        counts.forEach((status, counter) -> snapshot.put(status, counter.sum()));
+        return snapshot;
+    }
+}
@@ -0,0 +1,133 @@
+package com.restaurant.demo.service.order;
+
+import com.restaurant.demo.dto.OrderResponseDto;
+import com.restaurant.demo.exception.ServiceBusyException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the outcome of place-order per (customer, Idempotency-Key).
+ *
+ * The first request with a key runs the order; a retry or double-tap with the same key gets the
+ * same OrderResponseDto back without touching the database, and one that arrives while the first
+ * is still running waits for it. Failed attempts are forgotten so the client can retry with the
+ * same key. Entries expire after order.idempotency.ttl-seconds and the oldest are dropped once
+ * order.idempotency.max-entries is reached.
+ */
+@Component
+public class PlaceOrderIdempotencyStore {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final Map<Key, Entry> entries;
+    private final long ttlMs;
+    private final long waitTimeoutMs;
+
+    public PlaceOrderIdempotencyStore(@Value("${order.idempotency.max-entries:10000}") int maxEntries,
+                                      @Value("${order.idempotency.ttl-seconds:600}") long ttlSeconds,
+                                      @Value("${order.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.ttlMs = ttlSeconds * 1000;
+        this.waitTimeoutMs = waitTimeoutMs;
+        // insertion order = age order, so expired entries are always at the head
+        this.entries = new LinkedHashMap<>(256) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Place the order once per key
+     *
+     * @param customerId Customer the key belongs to
+     * @param idempotencyKey Client-chosen key; null or blank runs placeOrder without deduplication
+     * @param placeOrder The actual place-order call
+     * @throws IllegalArgumentException if the key is longer than 100 characters
+     * @throws ServiceBusyException if an earlier request with the key is still running after the wait timeout
+     */
+    public OrderResponseDto placeOnce(Long customerId, String idempotencyKey, Supplier<OrderResponseDto> placeOrder) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return placeOrder.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(HEADER + " must not exceed " + MAX_KEY_LENGTH + " characters");
+        }
+
+        Key key = new Key(customerId, idempotencyKey);
+        CompletableFuture<OrderResponseDto> mine = new CompletableFuture<>();
+        CompletableFuture<OrderResponseDto> existing;
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            purgeExpired(now);
+            Entry entry = entries.get(key);
+            existing = entry != null ? entry.result() : null;
+            if (existing == null) {
+                entries.put(key, new Entry(mine, now + ttlMs));
+            }
+        }
+
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            OrderResponseDto response = placeOrder.get();
+            mine.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            // ลืม key นี้ไป ให้ลูกค้ากดใหม่ด้วย key เดิมได้
+            synchronized (entries) {
+                Entry entry = entries.get(key);
+                if (entry != null && entry.result() == mine) {
+                    entries.remove(key);
+                }
+            }
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private OrderResponseDto await(CompletableFuture<OrderResponseDto> result) {
+        try {
+            return result.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Failed to place order", e.getCause());
+        } catch (TimeoutException e) {
+            throw new ServiceBusyException("This order is still being placed, please try again in a moment");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("This order is still being placed, please try again in a moment");
+        }
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().expiresAt() > now) {
+                return;
+            }
+            it.remove();
+        }
+    }
+
+    private record Key(Long customerId, String idempotencyKey) {
+    }
+
+    private record Entry(CompletableFuture<OrderResponseDto> result, long expiresAt) {
+    }
+}
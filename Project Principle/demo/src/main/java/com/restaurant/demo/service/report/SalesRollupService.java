@@ -0,0 +1,108 @@
+package com.restaurant.demo.service.report;
+
+import com.restaurant.demo.model.Order;
+import com.restaurant.demo.model.OrderItem;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Maintains the sales_daily / sales_daily_item rollup tables.
+ * Each finished order is added inside the same transaction that moves it to
+ * Finish, and taken out again in the transaction that cancels it afterwards
+ * (Finish → Cancelled is allowed), so the rollup never drifts from the
+ * finished orders in the orders table.
+ * Reports then read a few hundred rows per year instead of scanning orders.
+ */
+@Service
+@Transactional
+public class SalesRollupService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Add a finished order to the rollup for the day it was created
+     *
+     * @param order The order that just transitioned to Finish (items must be reachable)
+     */
+    public void recordFinishedOrder(Order order) {
+        // ใช้วันที่สร้างออเดอร์ ให้ตรงกับรายงานเดิมที่กรองด้วย created_at
+        LocalDate salesDate = order.getCreatedAt().toLocalDate();
+
+        entityManager.createNativeQuery("""
+            INSERT INTO sales_daily (sales_date, revenue, order_count)
+            VALUES (:salesDate, :revenue, 1)
+            ON DUPLICATE KEY UPDATE revenue = revenue + :revenue, order_count = order_count + 1
+            """)
+                .setParameter("salesDate", salesDate)
+                .setParameter("revenue", order.getTotalAmount())
+                .executeUpdate();
+
+        // รวมจำนวนต่อเมนูก่อน เผื่อออเดอร์มีเมนูเดียวกันหลายบรรทัด
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(item.getItemName(), item.getQuantity(), Integer::sum);
+        }
+
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            entityManager.createNativeQuery("""
+                INSERT INTO sales_daily_item (sales_date, item_name, quantity)
+                VALUES (:salesDate, :itemName, :quantity)
+                ON DUPLICATE KEY UPDATE quantity = quantity + :quantity
+                """)
+                    .setParameter("salesDate", salesDate)
+                    .setParameter("itemName", entry.getKey())
+                    .setParameter("quantity", entry.getValue())
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * Take a finished order back out of the rollup when it is cancelled afterwards
+     *
+     * @param order The order that just transitioned from Finish to Cancelled (items must be reachable)
+     */
+    public void recordCancelledFinishedOrder(Order order) {
+        LocalDate salesDate = order.getCreatedAt().toLocalDate();
+
+        entityManager.createNativeQuery("""
+            UPDATE sales_daily
+            SET revenue = revenue - :revenue, order_count = order_count - 1
+            WHERE sales_date = :salesDate
+            """)
+                .setParameter("salesDate", salesDate)
+                .setParameter("revenue", order.getTotalAmount())
+                .executeUpdate();
+
+        Map<String, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItem item : order.getOrderItems()) {
+            quantities.merge(item.getItemName(), item.getQuantity(), Integer::sum);
+        }
+
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            entityManager.createNativeQuery("""
+                UPDATE sales_daily_item
+                SET quantity = quantity - :quantity
+                WHERE sales_date = :salesDate AND item_name = :itemName
+                """)
+                    .setParameter("salesDate", salesDate)
+                    .setParameter("itemName", entry.getKey())
+                    .setParameter("quantity", entry.getValue())
+                    .executeUpdate();
+        }
+
+        // แถวที่เหลือศูนย์ต้องหายไป เหมือน query เดิมที่ไม่เห็นวัน/เมนูที่ไม่มีออเดอร์ Finish
+        entityManager.createNativeQuery("DELETE FROM sales_daily WHERE sales_date = :salesDate AND order_count <= 0")
+                .setParameter("salesDate", salesDate)
+                .executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM sales_daily_item WHERE sales_date = :salesDate AND quantity <= 0")
+                .setParameter("salesDate", salesDate)
+                .executeUpdate();
+    }
+}
@@ -5,34 +5,40 @@ import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 // repository จำลองเก็บข้อมูลผู้ใช้ในหน่วยความจำ
+// Reads never lock: users are kept sorted by id, with case-folded username and role indexes
+// next to them. Writes are rare (account admin) and serialized so the indexes stay in step.
 @Component
 public class InMemoryUserDirectory implements UserDirectory {
 
-    private final Map<Integer, User> users = new ConcurrentHashMap<>();
+    private final NavigableMap<Integer, User> users = new ConcurrentSkipListMap<>();
+    private final Map<String, User> byUsername = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<Integer, User>> byRole = new ConcurrentHashMap<>();
+    // keys each id is currently indexed under (users are mutable, so they can't be re-derived)
+    private final Map<Integer, IndexKeys> indexed = new ConcurrentHashMap<>();
     private final AtomicInteger sequence;
 
     public InMemoryUserDirectory() {
         Instant createdAt = Instant.now();
-        users.put(1, new User(1, "manager1", "Admin User", "Admin", "manager", createdAt.toString(), "0000"));
-        users.put(2, new User(2, "ploy", "Ploy Pan", "Employee One", "employee", createdAt.toString(), "1111"));
-        users.put(3, new User(3, "customer1", "Customer One", "Customer One", "customer", createdAt.toString(), null));
-        int maxId = users.keySet().stream().max(Integer::compareTo).orElse(0);
+        put(new User(1, "manager1", "Admin User", "Admin", "manager", createdAt.toString(), "0000"));
+        put(new User(2, "ploy", "Ploy Pan", "Employee One", "employee", createdAt.toString(), "1111"));
+        put(new User(3, "customer1", "Customer One", "Customer One", "customer", createdAt.toString(), null));
+        int maxId = users.isEmpty() ? 0 : users.lastKey();
         this.sequence = new AtomicInteger(maxId);
     }
 
     @Override
     public List<User> findAll() {
-        return users.values().stream()
-                .sorted(Comparator.comparingInt(User::getId))
-                .collect(ArrayList::new, ArrayList::add, ArrayList::addAll);
+        return new ArrayList<>(users.values());
     }
 
     @Override
@@ -42,22 +48,37 @@ public class InMemoryUserDirectory implements UserDirectory {
 
     @Override
     public Optional<User> findByUsername(String username) {
-        return users.values().stream()
-                .filter(user -> user.getUsername().equalsIgnoreCase(username))
-                .findFirst();
+        if (username == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(byUsername.get(fold(username)));
+    }
+
+    @Override
+    public Optional<User> findFirstByRole(String role) {
+        if (role == null) {
+            return Optional.empty();
+        }
+        NavigableMap<Integer, User> withRole = byRole.get(fold(role));
+        if (withRole == null) {
+            return Optional.empty();
+        }
+        Map.Entry<Integer, User> first = withRole.firstEntry();
+        return first != null ? Optional.of(first.getValue()) : Optional.empty();
     }
 
     @Override
     public User save(User user) {
         int userId = user.getId() > 0 ? user.getId() : nextIdentity();
         user.setId(userId);
-        users.put(userId, user);
+        put(user);
         sequence.accumulateAndGet(userId, Math::max);
         return user;
     }
 
     @Override
-    public boolean deleteById(int id) {
+    public synchronized boolean deleteById(int id) {
+        unindex(id);
         return users.remove(id) != null;
     }
 
@@ -65,4 +86,42 @@ public class InMemoryUserDirectory implements UserDirectory {
     public int nextIdentity() {
         return sequence.incrementAndGet();
     }
+
+    private synchronized void put(User user) {
+        unindex(user.getId());
+        IndexKeys keys = new IndexKeys(
+                user.getUsername() != null ? fold(user.getUsername()) : null,
+                user.getRole() != null ? fold(user.getRole()) : null);
+        users.put(user.getId(), user);
+        if (keys.username() != null) {
+            byUsername.put(keys.username(), user);
+        }
+        if (keys.role() != null) {
+            byRole.computeIfAbsent(keys.role(), role -> new ConcurrentSkipListMap<>()).put(user.getId(), user);
+        }
+        indexed.put(user.getId(), keys);
+    }
+
+    private void unindex(int id) {
+        IndexKeys keys = indexed.remove(id);
+        if (keys == null) {
+            return;
+        }
+        if (keys.username() != null) {
+            byUsername.computeIfPresent(keys.username(), (name, user) -> user.getId() == id ? null : user);
+        }
+        if (keys.role() != null) {
+            NavigableMap<Integer, User> withRole = byRole.get(keys.role());
+            if (withRole != null) {
+                withRole.remove(id);
+            }
+        }
+    }
+
+    private static String fold(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private record IndexKeys(String username, String role) {
+    }
 }
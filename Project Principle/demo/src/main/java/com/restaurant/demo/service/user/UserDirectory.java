@@ -13,6 +13,9 @@ public interface UserDirectory {
 
     Optional<User> findByUsername(String username);
 
+    // Lowest-id user with this role (case-insensitive)
+    Optional<User> findFirstByRole(String role);
+
     User save(User user);
 
     boolean deleteById(int id);
@@ -0,0 +1,89 @@
+-- Baseline schema matching the JPA entities as previously created by ddl-auto=update.
+-- Existing databases are baselined at version 1 (spring.flyway.baseline-on-migrate),
+-- so this script only runs against an empty schema (new installs, H2 in tests).
+
+CREATE TABLE customers (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(50) NOT NULL,
+    username VARCHAR(20) NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    phone VARCHAR(15) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_customers_username UNIQUE (username),
+    CONSTRAINT uk_customers_email UNIQUE (email)
+);
+
+CREATE TABLE employees (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    position VARCHAR(255),
+    username VARCHAR(50) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_employees_username UNIQUE (username)
+);
+
+CREATE TABLE managers (
+    id BIGINT NOT NULL,
+    email VARCHAR(100) NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_managers_email UNIQUE (email),
+    CONSTRAINT fk_managers_employee FOREIGN KEY (id) REFERENCES employees (id)
+);
+
+CREATE TABLE menu_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    category VARCHAR(255),
+    name VARCHAR(255),
+    price DOUBLE NOT NULL,
+    description VARCHAR(255),
+    active BIT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    customer_id BIGINT NOT NULL,
+    employee_id BIGINT,
+    status VARCHAR(20) NOT NULL,
+    total_amount DECIMAL(10,2) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_orders_customer FOREIGN KEY (customer_id) REFERENCES customers (id),
+    CONSTRAINT fk_orders_employee FOREIGN KEY (employee_id) REFERENCES employees (id)
+);
+
+CREATE TABLE order_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    order_id BIGINT NOT NULL,
+    item_name VARCHAR(100) NOT NULL,
+    item_price DECIMAL(10,2) NOT NULL,
+    quantity INT NOT NULL,
+    total DECIMAL(10,2) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id)
+);
+
+CREATE TABLE cart_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    customer_id BIGINT NOT NULL,
+    order_id BIGINT,
+    item_name VARCHAR(100) NOT NULL,
+    item_price DECIMAL(6,2) NOT NULL,
+    quantity INT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT chk_cart_items_quantity CHECK (quantity >= 1 AND quantity <= 100),
+    CONSTRAINT fk_cart_items_customer FOREIGN KEY (customer_id) REFERENCES customers (id),
+    CONSTRAINT fk_cart_items_order FOREIGN KEY (order_id) REFERENCES orders (id)
+);
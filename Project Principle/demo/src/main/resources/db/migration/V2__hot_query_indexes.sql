@@ -0,0 +1,13 @@
+-- Indexes for the hot order / cart lookups.
+
+-- Employee order list by status + keyset paging on (created_at, id); countByStatus
+CREATE INDEX idx_orders_status_created_at ON orders (status, created_at, id);
+
+-- Customer order history + keyset paging on (created_at, id)
+CREATE INDEX idx_orders_customer_created_at ON orders (customer_id, created_at, id);
+
+-- Date-range reports (findByCreatedAtBetween, monthly report)
+CREATE INDEX idx_orders_created_at ON orders (created_at);
+
+-- Cart lookups by customer and status (findByCustomerAndStatus)
+CREATE INDEX idx_cart_items_customer_status ON cart_items (customer_id, status);
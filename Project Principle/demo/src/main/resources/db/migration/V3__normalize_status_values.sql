@@ -0,0 +1,13 @@
+-- Rewrite status values to the canonical form written by OrderStatusConverter / CartItem,
+-- so lookups can use plain equality on the status indexes instead of LOWER(status).
+
+UPDATE orders SET status = 'Pending' WHERE LOWER(status) = 'pending';
+UPDATE orders SET status = 'In Progress' WHERE LOWER(status) IN ('in progress', 'in_progress');
+UPDATE orders SET status = 'Finish' WHERE LOWER(status) IN ('finish', 'completed');
+UPDATE orders SET status = 'Cancelled' WHERE LOWER(status) = 'cancelled';
+
+UPDATE cart_items SET status = 'Pending' WHERE LOWER(status) = 'pending';
+UPDATE cart_items SET status = 'In Progress' WHERE LOWER(status) IN ('in progress', 'in_progress');
+UPDATE cart_items SET status = 'Finish' WHERE LOWER(status) IN ('finish', 'completed');
+UPDATE cart_items SET status = 'Cancelled' WHERE LOWER(status) = 'cancelled';
+UPDATE cart_items SET status = 'Ordered' WHERE LOWER(status) = 'ordered';
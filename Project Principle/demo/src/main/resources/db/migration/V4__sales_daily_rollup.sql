@@ -0,0 +1,30 @@
+-- Daily sales rollup maintained by SalesRollupService when an order moves to Finish.
+-- Monthly/yearly reports read these tables instead of scanning orders/order_items.
+
+CREATE TABLE sales_daily (
+    sales_date DATE NOT NULL,
+    revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (sales_date)
+);
+
+CREATE TABLE sales_daily_item (
+    sales_date DATE NOT NULL,
+    item_name VARCHAR(100) NOT NULL,
+    quantity BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (sales_date, item_name)
+);
+
+-- Backfill from orders that were already finished before the rollup existed
+INSERT INTO sales_daily (sales_date, revenue, order_count)
+SELECT CAST(o.created_at AS DATE), SUM(o.total_amount), COUNT(*)
+FROM orders o
+WHERE o.status = 'Finish'
+GROUP BY CAST(o.created_at AS DATE);
+
+INSERT INTO sales_daily_item (sales_date, item_name, quantity)
+SELECT CAST(o.created_at AS DATE), oi.item_name, SUM(oi.quantity)
+FROM order_items oi
+JOIN orders o ON oi.order_id = o.id
+WHERE o.status = 'Finish'
+GROUP BY CAST(o.created_at AS DATE), oi.item_name;
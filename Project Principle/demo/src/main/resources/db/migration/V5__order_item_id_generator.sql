@@ -0,0 +1,13 @@
+-- Table-backed pooled id generator for order_items (see OrderItem.id).
+-- IDENTITY ids disable JDBC batching; reserving ids in blocks of 50 lets
+-- all items of an order be inserted in one batch.
+
+CREATE TABLE id_generators (
+    sequence_name VARCHAR(255) NOT NULL,
+    next_val BIGINT,
+    PRIMARY KEY (sequence_name)
+);
+
+-- Pooled optimizer hands out (next_val - 49) .. next_val, so start one block past the current max id
+INSERT INTO id_generators (sequence_name, next_val)
+SELECT 'order_items', COALESCE(MAX(id), 0) + 51 FROM order_items;
@@ -0,0 +1,25 @@
+-- One cart line per (customer, item, status) so addToCart can be a single upsert.
+-- Merge any duplicates created by the old find-then-insert race into the oldest row first.
+
+CREATE TABLE cart_items_dedup AS
+SELECT customer_id, item_name, status, MIN(id) AS keep_id, LEAST(SUM(quantity), 99) AS total_quantity
+FROM cart_items
+GROUP BY customer_id, item_name, status
+HAVING COUNT(*) > 1;
+
+UPDATE cart_items
+SET quantity = (SELECT d.total_quantity FROM cart_items_dedup d WHERE d.keep_id = cart_items.id)
+WHERE id IN (SELECT keep_id FROM cart_items_dedup);
+
+DELETE FROM cart_items
+WHERE EXISTS (
+    SELECT 1 FROM cart_items_dedup d
+    WHERE d.customer_id = cart_items.customer_id
+      AND d.item_name = cart_items.item_name
+      AND d.status = cart_items.status
+      AND d.keep_id <> cart_items.id
+);
+
+DROP TABLE cart_items_dedup;
+
+ALTER TABLE cart_items ADD CONSTRAINT uk_cart_items_customer_item_status UNIQUE (customer_id, item_name, status);
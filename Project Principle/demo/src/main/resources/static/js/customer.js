@@ -162,6 +162,17 @@ async function getCart(userId) {
     }
 }
 
+async function getCartSummary(userId) {
+    try {
+        const res = await fetch(`/api/cart/summary/${userId}`);
+        if (!res.ok) throw new Error("โหลด cart ไม่สำเร็จ");
+        return await res.json();
+    } catch (err) {
+        console.error(err);
+        return { items: [], total: 0, itemCount: 0 };
+    }
+}
+
 async function addToCart(item, userId) {
     try {
         const res = await fetch("/api/cart/add", {
@@ -286,7 +297,8 @@ async function removeFromCart(cartItemId, userId) {
 }
 
 async function loadCart(userId) {
-    const cart = await getCart(userId);
+    const summary = await getCartSummary(userId);
+    const cart = summary.items;
     const cartCount = document.getElementById("cartCount");
     const cartItemsDiv = document.getElementById("cartItems");
     const emptyCart = document.getElementById("emptyCart");
@@ -296,9 +308,7 @@ async function loadCart(userId) {
     cartItemsDiv.innerHTML = "";
 
     if (cart.length > 0) {
-        // Calculate total item count (sum of all quantities)
-        const totalItems = cart.reduce((sum, item) => sum + item.quantity, 0);
-        cartCount.textContent = totalItems;
+        cartCount.textContent = summary.itemCount;
         cartCount.classList.remove("hidden");
     } else {
         cartCount.classList.add("hidden");
@@ -311,10 +321,7 @@ async function loadCart(userId) {
         emptyCart.classList.add("hidden");
         cartFooter.classList.remove("hidden");
 
-        let total = 0;
         cart.forEach(item => {
-            const itemTotal = item.itemPrice * item.quantity;
-            total += itemTotal;
             const div = document.createElement("div");
             div.className = "border-b pb-3 mb-3";
             div.innerHTML = `
@@ -332,13 +339,13 @@ async function loadCart(userId) {
                     </div>
                     <div class="text-right">
                         <div class="text-sm text-gray-500">฿${item.itemPrice} × ${item.quantity}</div>
-                        <div class="font-semibold">฿${itemTotal}</div>
+                        <div class="font-semibold">฿${item.totalPrice}</div>
                     </div>
                 </div>
             `;
             cartItemsDiv.appendChild(div);
         });
-        cartTotal.textContent = `฿${total}`;
+        cartTotal.textContent = `฿${summary.total}`;
 
         // Event ลบสินค้า
         document.querySelectorAll(".remove-item").forEach(btn => {
@@ -380,6 +387,23 @@ async function loadCart(userId) {
 }
 
 // ======== Place Order ========
+// Idempotency-Key for the checkout in progress: a double-tap or retry reuses it,
+// so the server returns the first order instead of placing another
+let pendingOrderKey = null;
+
+// crypto.randomUUID() only exists on HTTPS/localhost; tablets on the LAN reach the app over
+// plain HTTP, where getRandomValues() is still available
+function newOrderKey() {
+    if (window.crypto && typeof window.crypto.randomUUID === "function") {
+        return window.crypto.randomUUID();
+    }
+    if (window.crypto && typeof window.crypto.getRandomValues === "function") {
+        const bytes = window.crypto.getRandomValues(new Uint8Array(16));
+        return Array.from(bytes, b => b.toString(16).padStart(2, "0")).join("");
+    }
+    return Date.now().toString(36) + "-" + Math.random().toString(36).slice(2) + Math.random().toString(36).slice(2);
+}
+
 async function placeOrder(userId) {
     try {
         // First check if cart has items
@@ -389,18 +413,27 @@ async function placeOrder(userId) {
             return;
         }
 
+        if (!pendingOrderKey) {
+            pendingOrderKey = newOrderKey();
+        }
+
         // Call place order API
         const response = await fetch(`/api/orders/customers/${userId}/place-order`, {
             method: "POST",
-            headers: { "Content-Type": "application/json" }
+            headers: { "Content-Type": "application/json", "Idempotency-Key": pendingOrderKey }
         });
 
         if (!response.ok) {
+            // 4xx will not succeed on retry with the same key, start a new checkout next time
+            if (response.status < 500) {
+                pendingOrderKey = null;
+            }
             const errorData = await response.json().catch(() => ({ message: "ไม่สามารถสั่งจองได้" }));
             throw new Error(errorData.message || "ไม่สามารถสั่งจองได้");
         }
 
         const orderResponse = await response.json();
+        pendingOrderKey = null;
         
         // Show success notification
         showNotification("✅ สั่งจองเรียบร้อยแล้ว! คำสั่งซื้อของคุณอยู่ในสถานะรอดำเนินการ", "success");
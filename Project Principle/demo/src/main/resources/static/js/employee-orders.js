@@ -6,6 +6,7 @@ let allOrders = [];
 let currentFilter = 'all';
 let pollingInterval = null;
 let previousPendingCount = 0;
+let orderFeed = null;
 
 document.addEventListener("DOMContentLoaded", () => {
     setupEmployeeOrdersPage();
@@ -61,8 +62,8 @@ async function setupEmployeeOrdersPage() {
     // Load orders initially
     await loadOrders();
 
-    // Start polling for new orders every 30 seconds
-    startNotificationPolling();
+    // Subscribe to live order feed (falls back to polling if SSE is unavailable)
+    startOrderFeed();
 }
 
 // ======== Setup Filter Buttons ========
@@ -413,8 +414,8 @@ async function updateOrderStatus(orderId, newStatus) {
         
         showNotification(`อัปเดตสถานะคำสั่งซื้อ #${orderId} เป็น "${newStatus}" สำเร็จ`, "success");
         
-        // Reload orders to reflect changes
-        await loadOrders();
+        // Show the updated order right away (the feed pushes the same order to the other tablets)
+        applyOrderUpdate(updatedOrder);
 
     } catch (error) {
         console.error("Error updating order status:", error);
@@ -525,7 +526,59 @@ function showBillModal(order) {
     billModal.classList.remove("hidden");
 }
 
-// ======== Notification Polling ========
+// ======== Live Order Feed (Server-Sent Events) ========
+function startOrderFeed() {
+    if (!window.EventSource) {
+        startNotificationPolling();
+        return;
+    }
+
+    orderFeed = new EventSource('/api/employees/orders/stream', { withCredentials: true });
+    let connectedBefore = false;
+
+    orderFeed.onopen = () => {
+        // events sent while the stream was reconnecting are lost, so reload once after a reconnect
+        if (connectedBefore) {
+            loadOrders();
+        }
+        connectedBefore = true;
+    };
+
+    orderFeed.addEventListener('order-created', (event) => {
+        const order = JSON.parse(event.data);
+        showNotificationBadge(1);
+        showNotification(`มีคำสั่งซื้อใหม่ #${order.orderId}! 🔔`, "info");
+        applyOrderUpdate(order);
+    });
+
+    orderFeed.addEventListener('order-status-changed', (event) => {
+        applyOrderUpdate(JSON.parse(event.data));
+    });
+
+    orderFeed.onerror = () => {
+        // EventSource reconnects by itself; only fall back to polling once the stream is closed for good
+        if (orderFeed.readyState === EventSource.CLOSED) {
+            console.warn("Order feed closed - falling back to polling");
+            orderFeed = null;
+            startNotificationPolling();
+        }
+    };
+}
+
+// Put a pushed order into allOrders (replacing the old copy) and redraw from memory, without refetching
+function applyOrderUpdate(order) {
+    const index = allOrders.findIndex(o => o.orderId === order.orderId);
+    if (index >= 0) {
+        allOrders[index] = order;
+    } else {
+        allOrders.push(order);
+    }
+
+    updateStatistics(allOrders);
+    filterAndDisplayOrders(currentFilter);
+}
+
+// ======== Notification Polling (fallback) ========
 function startNotificationPolling() {
     // Clear any existing interval
     if (pollingInterval) {
@@ -578,6 +631,11 @@ async function handleLogout() {
             clearInterval(pollingInterval);
         }
 
+        // Close live order feed
+        if (orderFeed) {
+            orderFeed.close();
+        }
+
         // Clear sessionStorage
         sessionStorage.removeItem('employeeId');
         sessionStorage.removeItem('employeeName');
@@ -0,0 +1,69 @@
+package com.restaurant.demo.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Admission with a single permit: a second thread waits and times out, but a nested connection
+ * on the thread that holds the permit is handed out without one.
+ */
+class AdmissionControlledDataSourceTest {
+
+    private AdmissionControlledDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:admission;DB_CLOSE_DELAY=-1");
+        dataSource = new AdmissionControlledDataSource(h2, 1, 100);
+    }
+
+    @Test
+    void nestedConnectionOnTheHoldingThreadNeedsNoPermit() throws Exception {
+        try (Connection outer = dataSource.getConnection()) {
+            try (Connection nested = dataSource.getConnection()) {
+                assertTrue(nested.isValid(1));
+                assertEquals(0, dataSource.getAvailablePermits());
+            }
+
+            ExecutionException waited = assertThrows(ExecutionException.class,
+                    () -> CompletableFuture.supplyAsync(this::connect).get());
+            assertInstanceOf(SQLTransientConnectionException.class, waited.getCause().getCause());
+        }
+        assertEquals(1, dataSource.getAvailablePermits());
+
+        // the thread holds nothing any more, so the next connection takes the permit again
+        try (Connection again = dataSource.getConnection()) {
+            assertEquals(0, dataSource.getAvailablePermits());
+        }
+    }
+
+    @Test
+    void connectionEqualsItselfByIdentity() throws Exception {
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            assertEquals(first, first);
+            assertEquals(System.identityHashCode(first), first.hashCode());
+            assertNotEquals(first, second);
+        }
+    }
+
+    private Connection connect() {
+        try {
+            return dataSource.getConnection();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
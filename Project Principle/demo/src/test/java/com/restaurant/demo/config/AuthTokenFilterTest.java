@@ -0,0 +1,72 @@
+package com.restaurant.demo.config;
+
+import com.restaurant.demo.service.auth.AuthPrincipal;
+import com.restaurant.demo.service.auth.AuthTokenService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Where AuthTokenFilter reads the token from, and what it exposes to the rest of the request.
+ */
+class AuthTokenFilterTest {
+
+    private final AuthTokenService tokens = new AuthTokenService("test-secret-at-least-32-bytes-long!", 60, false, false);
+    private final AuthTokenFilter filter = new AuthTokenFilter(tokens);
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void bearerHeaderIsAccepted() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees/orders");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.issue(AuthPrincipal.Role.EMPLOYEE, 3L, "kitchen"));
+
+        AuthPrincipal principal = filter(request);
+
+        assertEquals(AuthPrincipal.Role.EMPLOYEE, principal.role());
+        assertEquals("ROLE_EMPLOYEE",
+                SecurityContextHolder.getContext().getAuthentication().getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void cookieIsAccepted() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cart/summary/5");
+        request.setCookies(new Cookie(AuthTokenService.COOKIE_NAME, tokens.issue(AuthPrincipal.Role.CUSTOMER, 5L, "somchai")));
+
+        assertEquals(5L, filter(request).id());
+    }
+
+    @Test
+    void bearerHeaderWinsOverCookie() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/managers/order-stats");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + tokens.issue(AuthPrincipal.Role.MANAGER, 1L, "boss"));
+        request.setCookies(new Cookie(AuthTokenService.COOKIE_NAME, tokens.issue(AuthPrincipal.Role.CUSTOMER, 5L, "somchai")));
+
+        assertEquals(AuthPrincipal.Role.MANAGER, filter(request).role());
+    }
+
+    @Test
+    void invalidTokenLeavesRequestAnonymous() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/employees/orders");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer not-a-token");
+
+        assertNull(filter(request));
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private AuthPrincipal filter(MockHttpServletRequest request) throws Exception {
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return AuthPrincipal.from(request);
+    }
+}
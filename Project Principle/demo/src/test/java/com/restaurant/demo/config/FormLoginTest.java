@@ -0,0 +1,112 @@
+package com.restaurant.demo.config;
+
+import com.restaurant.demo.model.Customer;
+import com.restaurant.demo.repository.CustomerRepository;
+import com.restaurant.demo.service.auth.AuthTokenService;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * The customer login form (POST /login, handled by Spring Security) goes through the same
+ * throttle and hash pool as the JSON logins: failures are counted per username and client,
+ * and a weak stored hash is upgraded after a successful login.
+ *
+ * Runs without a test transaction so the background re-hash can see the customer.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class FormLoginTest {
+
+    private static final Pattern CSRF_INPUT = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+    private static final String PASSWORD = "Secret123!";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private Customer customer;
+
+    @BeforeEach
+    void seedCustomer() {
+        // cost 4, below the configured 10, so a successful login upgrades it
+        String weakHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        customer = customerRepository.save(
+                new Customer("Form Login", "formlogin", "formlogin@example.com", "0812222222", weakHash));
+    }
+
+    @AfterEach
+    void removeCustomer() {
+        customerRepository.deleteById(customer.getId());
+    }
+
+    @Test
+    void successfulLoginIssuesTokenAndUpgradesTheHash() throws Exception {
+        submit("formlogin", PASSWORD, "10.0.0.1")
+                .andExpect(redirectedUrl("/customer/" + customer.getId()))
+                .andExpect(cookie().exists(AuthTokenService.COOKIE_NAME));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!storedHash().startsWith("$2a$10$") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(storedHash().startsWith("$2a$10$"), "hash upgraded to the configured cost: " + storedHash());
+    }
+
+    @Test
+    void failedLoginsAreCountedAndThenThrottled() throws Exception {
+        // security.login.max-failures-per-username defaults to 10
+        for (int i = 0; i < 10; i++) {
+            submit("formlogin", "wrong-password", "10.0.0.2").andExpect(redirectedUrl("/login?error"));
+        }
+        submit("formlogin", PASSWORD, "10.0.0.2").andExpect(redirectedUrl("/login?throttled"));
+
+        // the same username from another client still gets through
+        submit("formlogin", PASSWORD, "10.0.0.3")
+                .andExpect(redirectedUrl("/customer/" + customer.getId()));
+    }
+
+    private ResultActions submit(String username, String password, String clientIp) throws Exception {
+        MvcResult page = mockMvc.perform(get("/login")).andReturn();
+        Matcher token = CSRF_INPUT.matcher(page.getResponse().getContentAsString());
+        assertTrue(token.find(), "login form carries a CSRF token");
+        Cookie csrfCookie = page.getResponse().getCookie("XSRF-TOKEN");
+
+        return mockMvc.perform(post("/login")
+                .with(request -> {
+                    request.setRemoteAddr(clientIp);
+                    return request;
+                })
+                .cookie(csrfCookie)
+                .param("username", username)
+                .param("password", password)
+                .param("_csrf", token.group(1)));
+    }
+
+    private String storedHash() {
+        return customerRepository.findById(customer.getId()).orElseThrow().getPasswordHash();
+    }
+}
@@ -0,0 +1,138 @@
+package com.restaurant.demo.config;
+
+import com.restaurant.demo.BaseIntegrationTest;
+import com.restaurant.demo.model.Customer;
+import com.restaurant.demo.repository.CustomerRepository;
+import com.restaurant.demo.service.auth.AuthPrincipal.Role;
+import com.restaurant.demo.service.auth.AuthTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The role matrix enforced by RoleInterceptor: anonymous callers get 401, the wrong role
+ * or another customer's id gets 403, and the right caller reaches the controller.
+ */
+@AutoConfigureMockMvc
+class RoleInterceptorTest extends BaseIntegrationTest {
+
+    private static final String UNAUTHORIZED = "{\"error\":\"Unauthorized. Please login first.\"}";
+    private static final String FORBIDDEN = "{\"error\":\"Forbidden. Your account cannot perform this action.\"}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    private Customer customer;
+    private Customer otherCustomer;
+
+    @BeforeEach
+    void seedCustomers() {
+        customer = customerRepository.save(
+                new Customer("Somchai Jaidee", "somchai", "somchai@example.com", "0812345678", "hashed-password"));
+        otherCustomer = customerRepository.save(
+                new Customer("Malee Sukjai", "malee", "malee@example.com", "0898765432", "hashed-password"));
+    }
+
+    @Test
+    void anonymousCallersAreUnauthorizedOnGuardedApis() throws Exception {
+        MockHttpServletRequestBuilder[] requests = {
+                get("/api/employees"),
+                get("/api/employees/1/credentials"),
+                post("/api/employees").contentType(MediaType.APPLICATION_JSON).content("{}"),
+                put("/api/employees/1").contentType(MediaType.APPLICATION_JSON).content("{}"),
+                delete("/api/employees/1"),
+                get("/api/employees/orders"),
+                get("/api/carts"),
+                get("/api/reports/sales"),
+                get("/api/managers/order-stats"),
+                get("/api/customers/" + customer.getId()),
+                put("/api/customers/" + customer.getId()).contentType(MediaType.APPLICATION_JSON).content("{}"),
+                get("/api/orders/customers/" + customer.getId() + "/orders"),
+        };
+        for (MockHttpServletRequestBuilder request : requests) {
+            mockMvc.perform(request)
+                    .andExpect(status().isUnauthorized())
+                    .andExpect(content().json(UNAUTHORIZED));
+        }
+    }
+
+    @Test
+    void wrongRoleIsForbidden() throws Exception {
+        String employee = authTokenService.issue(Role.EMPLOYEE, 1L, "kitchen");
+        String manager = authTokenService.issue(Role.MANAGER, 1L, "boss");
+        String customerToken = customerToken(customer);
+
+        expectForbidden(get("/api/employees/1/credentials"), employee);
+        expectForbidden(delete("/api/employees/1"), employee);
+        expectForbidden(get("/api/carts"), employee);
+        expectForbidden(get("/api/reports/sales"), customerToken);
+        expectForbidden(post("/api/menuItems").contentType(MediaType.APPLICATION_JSON).content("{}"), customerToken);
+        expectForbidden(delete("/api/menuItems/1"), employee);
+        expectForbidden(get("/api/employees/orders"), customerToken);
+        expectForbidden(get("/api/employees/orders"), manager);
+        expectForbidden(get("/api/orders/customers/" + customer.getId() + "/orders"), employee);
+    }
+
+    @Test
+    void customersOnlyReachTheirOwnId() throws Exception {
+        String token = customerToken(customer);
+
+        mockMvc.perform(get("/api/customers/" + customer.getId()).header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/customers/" + customer.getId() + "/orders")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk());
+
+        expectForbidden(get("/api/customers/" + otherCustomer.getId()), token);
+        expectForbidden(put("/api/customers/" + otherCustomer.getId())
+                .contentType(MediaType.APPLICATION_JSON).content("{}"), token);
+        expectForbidden(get("/api/orders/customers/" + otherCustomer.getId() + "/orders"), token);
+        expectForbidden(get("/api/cart/summary/" + otherCustomer.getId()), token);
+    }
+
+    @Test
+    void rightRoleAndPublicPathsPass() throws Exception {
+        String manager = authTokenService.issue(Role.MANAGER, 1L, "boss");
+        String employee = authTokenService.issue(Role.EMPLOYEE, 1L, "kitchen");
+
+        mockMvc.perform(get("/api/employees").header(HttpHeaders.AUTHORIZATION, "Bearer " + manager))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/reports/sales").header(HttpHeaders.AUTHORIZATION, "Bearer " + manager))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/employees/orders/pending/count").header(HttpHeaders.AUTHORIZATION, "Bearer " + employee))
+                .andExpect(status().isOk());
+
+        // anonymous: logout, public customer checks and the menu read
+        mockMvc.perform(post("/api/employees/logout")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/customers/check-username").param("username", "nobody")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/manager/menu-items")).andExpect(status().isOk());
+    }
+
+    private String customerToken(Customer owner) {
+        return authTokenService.issue(Role.CUSTOMER, owner.getId(), owner.getUsername());
+    }
+
+    private void expectForbidden(MockHttpServletRequestBuilder request, String token) throws Exception {
+        mockMvc.perform(request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isForbidden())
+                .andExpect(content().json(FORBIDDEN));
+    }
+}
@@ -0,0 +1,105 @@
+package com.restaurant.demo.service;
+
+import com.restaurant.demo.BaseIntegrationTest;
+import com.restaurant.demo.dto.OrderResponseDto;
+import com.restaurant.demo.model.Customer;
+import com.restaurant.demo.model.Order;
+import com.restaurant.demo.model.OrderItem;
+import com.restaurant.demo.model.OrderStatus;
+import com.restaurant.demo.repository.CustomerRepository;
+import com.restaurant.demo.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verifies that order list endpoints load orders, customers and items
+ * with a bounded number of statements regardless of how many orders exist.
+ */
+class OrderServiceQueryCountTest extends BaseIntegrationTest {
+
+    private static final int ORDERS_PER_CUSTOMER = 25;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Customer firstCustomer;
+
+    @BeforeEach
+    void seedOrders() {
+        firstCustomer = customerRepository.save(
+                new Customer("Somchai Jaidee", "somchai", "somchai@example.com", "0812345678", "hashed-password"));
+        Customer secondCustomer = customerRepository.save(
+                new Customer("Malee Sukjai", "malee", "malee@example.com", "0898765432", "hashed-password"));
+
+        for (Customer customer : List.of(firstCustomer, secondCustomer)) {
+            for (int i = 0; i < ORDERS_PER_CUSTOMER; i++) {
+                Order order = new Order();
+                order.setCustomer(customer);
+                order.setStatus(OrderStatus.PENDING.getValue());
+                order.addOrderItem(new OrderItem("Bamee Moo Daeng", new BigDecimal("50.00"), 2));
+                order.addOrderItem(new OrderItem("Thai Tea", new BigDecimal("25.00"), 1));
+                order.calculateTotalAmount();
+                orderRepository.save(order);
+            }
+        }
+
+        // Start each assertion from an empty persistence context
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void getAllOrdersByStatusUsesBoundedStatements() {
+        List<OrderResponseDto> orders = orderService.getAllOrdersByStatus("Pending");
+
+        assertEquals(ORDERS_PER_CUSTOMER * 2, orders.size());
+        assertTrue(orders.stream().allMatch(o -> o.getItems().size() == 2));
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "Expected at most 2 statements but was " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getOrdersByCustomerIdUsesBoundedStatements() {
+        List<OrderResponseDto> orders = orderService.getOrdersByCustomerId(firstCustomer.getId());
+
+        assertEquals(ORDERS_PER_CUSTOMER, orders.size());
+        assertTrue(orders.stream().allMatch(o -> "Somchai Jaidee".equals(o.getCustomerName())));
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "Expected at most 2 statements but was " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getPendingOrdersByCustomerIdUsesBoundedStatements() {
+        List<OrderResponseDto> orders = orderService.getPendingOrdersByCustomerId(firstCustomer.getId());
+
+        assertEquals(ORDERS_PER_CUSTOMER, orders.size());
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "Expected at most 2 statements but was " + statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,127 @@
+package com.restaurant.demo.service;
+
+import com.restaurant.demo.dto.OrderResponseDto;
+import com.restaurant.demo.exception.OrderStatusConflictException;
+import com.restaurant.demo.model.Customer;
+import com.restaurant.demo.model.Order;
+import com.restaurant.demo.model.OrderItem;
+import com.restaurant.demo.model.OrderStatus;
+import com.restaurant.demo.repository.CustomerRepository;
+import com.restaurant.demo.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Two kitchen tablets change the same order at the same moment: one starts cooking it, the
+ * other cancels it. The first tablet's transaction is held open so the second one runs against
+ * an uncommitted change; the second must wait for the row and then act on the committed status.
+ *
+ * Runs without a test transaction so each tablet commits. H2 stays at its default READ COMMITTED:
+ * at REPEATABLE READ it aborts the waiting writer (40001) instead of re-reading the row like InnoDB.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderStatusRaceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Customer customer;
+    private Long orderId;
+
+    @BeforeEach
+    void seedOrder() {
+        customer = customerRepository.save(
+                new Customer("Race Tablet", "racetablet", "racetablet@example.com", "0811111111", "hashed-password"));
+        Order order = new Order();
+        order.setCustomer(customer);
+        order.setStatus(OrderStatus.PENDING.getValue());
+        order.addOrderItem(new OrderItem("Bamee Moo Daeng", new BigDecimal("50.00"), 1));
+        order.setTotalAmount(new BigDecimal("50.00"));
+        orderId = orderRepository.save(order).getId();
+    }
+
+    @AfterEach
+    void removeOrder() {
+        orderRepository.deleteById(orderId);
+        customerRepository.delete(customer);
+    }
+
+    @Test
+    void cancelWaitsForStartCookingThenCancelsTheCookingOrder() throws Exception {
+        CompletableFuture<OrderResponseDto> cancel = whileHeldOpen(OrderStatus.IN_PROGRESS, OrderStatus.CANCELLED);
+
+        assertEquals(OrderStatus.CANCELLED.getValue(), cancel.get(10, TimeUnit.SECONDS).getStatus());
+        assertEquals(OrderStatus.CANCELLED, currentStatus());
+    }
+
+    @Test
+    void startCookingWaitsForCancelThenConflicts() throws Exception {
+        CompletableFuture<OrderResponseDto> cook = whileHeldOpen(OrderStatus.CANCELLED, OrderStatus.IN_PROGRESS);
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> cook.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(OrderStatusConflictException.class, failure.getCause());
+        assertEquals("Invalid status transition from Cancelled to In Progress", failure.getCause().getMessage());
+        assertEquals(OrderStatus.CANCELLED, currentStatus());
+    }
+
+    /**
+     * Tablet one moves the order to first and keeps its transaction open; tablet two then asks
+     * for second, is checked to be waiting on the row, and is let through once tablet one commits
+     */
+    private CompletableFuture<OrderResponseDto> whileHeldOpen(OrderStatus first, OrderStatus second) throws Exception {
+        CountDownLatch changed = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        CompletableFuture<Void> tabletOne = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    orderService.updateOrderStatus(orderId, first.getValue());
+                    changed.countDown();
+                    try {
+                        commit.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertTrue(changed.await(10, TimeUnit.SECONDS));
+
+        CompletableFuture<OrderResponseDto> tabletTwo =
+                CompletableFuture.supplyAsync(() -> orderService.updateOrderStatus(orderId, second.getValue()));
+        Thread.sleep(300);
+        assertFalse(tabletTwo.isDone(), "second tablet should wait for the first one's row lock");
+
+        commit.countDown();
+        tabletOne.get(10, TimeUnit.SECONDS);
+        return tabletTwo;
+    }
+
+    private OrderStatus currentStatus() {
+        return orderRepository.findById(orderId).orElseThrow().getOrderStatus();
+    }
+}
@@ -0,0 +1,81 @@
+package com.restaurant.demo.service.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Signing and verification of the stateless auth token.
+ */
+class AuthTokenServiceTest {
+
+    private static final String SECRET = "test-secret-at-least-32-bytes-long!";
+
+    private final AuthTokenService tokens = new AuthTokenService(SECRET, 60, false, false);
+
+    @Test
+    void issuedTokenVerifiesToTheSamePrincipal() {
+        AuthPrincipal principal = tokens.verify(tokens.issue(AuthPrincipal.Role.EMPLOYEE, 7L, "kitchen")).orElseThrow();
+
+        assertEquals(AuthPrincipal.Role.EMPLOYEE, principal.role());
+        assertEquals(7L, principal.id());
+        assertEquals("kitchen", principal.username());
+    }
+
+    @Test
+    void tamperedPayloadOrSignatureIsRejected() {
+        String token = tokens.issue(AuthPrincipal.Role.CUSTOMER, 7L, "somchai");
+        int dot = token.indexOf('.');
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+
+        // same signature, role raised to MANAGER
+        String promoted = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("CUSTOMER|", "MANAGER|").getBytes(StandardCharsets.UTF_8));
+        assertEquals(Optional.empty(), tokens.verify(promoted + token.substring(dot)));
+
+        // same payload, another customer's id
+        String otherId = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("|7|", "|8|").getBytes(StandardCharsets.UTF_8));
+        assertEquals(Optional.empty(), tokens.verify(otherId + token.substring(dot)));
+
+        // first signature character changed (all six of its bits are signature bits)
+        char first = token.charAt(dot + 1);
+        assertEquals(Optional.empty(),
+                tokens.verify(token.substring(0, dot + 1) + (first == 'A' ? 'B' : 'A') + token.substring(dot + 2)));
+    }
+
+    @Test
+    void tokenSignedWithAnotherSecretIsRejected() {
+        AuthTokenService other = new AuthTokenService("another-secret-at-least-32-bytes!!", 60, false, false);
+
+        assertEquals(Optional.empty(), tokens.verify(other.issue(AuthPrincipal.Role.MANAGER, 1L, "boss")));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        AuthTokenService expired = new AuthTokenService(SECRET, 0, false, false);
+
+        assertEquals(Optional.empty(), expired.verify(expired.issue(AuthPrincipal.Role.CUSTOMER, 7L, "somchai")));
+    }
+
+    @Test
+    void missingSecretFailsUnlessARandomKeyIsAllowed() {
+        assertThrows(IllegalStateException.class, () -> new AuthTokenService("", 60, false, false));
+
+        AuthTokenService dev = new AuthTokenService("", 60, false, true);
+        assertTrue(dev.verify(dev.issue(AuthPrincipal.Role.CUSTOMER, 7L, "somchai")).isPresent());
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        for (String token : new String[]{null, "", ".", "abc", "abc.", ".abc", "!!!.???"}) {
+            assertTrue(tokens.verify(token).isEmpty(), "accepted " + token);
+        }
+    }
+}
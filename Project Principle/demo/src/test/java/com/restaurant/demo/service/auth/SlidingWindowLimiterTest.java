@@ -0,0 +1,116 @@
+package com.restaurant.demo.service.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Window arithmetic and concurrent counting of the striped sliding-window limiter.
+ * Times are explicit, starting on a window boundary.
+ */
+class SlidingWindowLimiterTest {
+
+    private static final long WINDOW_MS = 60_000;
+    private static final long T0 = 1_000 * WINDOW_MS;
+
+    @Test
+    void allowsUpToTheLimitWithinAWindow() {
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(1024, 3, WINDOW_MS);
+
+        assertTrue(limiter.tryAcquire("10.0.0.1", T0));
+        assertTrue(limiter.tryAcquire("10.0.0.1", T0 + 1_000));
+        assertTrue(limiter.tryAcquire("10.0.0.1", T0 + 2_000));
+        assertFalse(limiter.tryAcquire("10.0.0.1", T0 + 3_000));
+        assertTrue(limiter.isOverLimit("10.0.0.1", T0 + 3_000));
+    }
+
+    @Test
+    void previousWindowCountsByTheShareStillInsideTheSlidingWindow() {
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(1024, 4, WINDOW_MS);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire("key", T0 + i));
+        }
+
+        // a quarter into the next window, 3 of the previous 4 still count: one more fits
+        long quarter = T0 + WINDOW_MS + WINDOW_MS / 4;
+        assertTrue(limiter.tryAcquire("key", quarter));
+        assertFalse(limiter.tryAcquire("key", quarter));
+
+        // two windows later everything has expired
+        assertTrue(limiter.tryAcquire("key", T0 + 3 * WINDOW_MS));
+    }
+
+    @Test
+    void recordCountsWithoutCheckingAndIsOverLimitDoesNotCount() {
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(1024, 2, WINDOW_MS);
+
+        for (int i = 0; i < 5; i++) {
+            assertFalse(limiter.isOverLimit("user", T0));
+        }
+        limiter.record("user", T0);
+        limiter.record("user", T0);
+        limiter.record("user", T0);
+        assertTrue(limiter.isOverLimit("user", T0));
+        assertFalse(limiter.tryAcquire("user", T0));
+    }
+
+    @Test
+    void keysOnDifferentStripesHaveSeparateBudgets() {
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(1 << 16, 1, WINDOW_MS);
+
+        assertTrue(limiter.tryAcquire("somchai\n10.0.0.1", T0));
+        assertFalse(limiter.tryAcquire("somchai\n10.0.0.1", T0));
+        assertTrue(limiter.tryAcquire("somchai\n10.0.0.2", T0));
+        assertTrue(limiter.tryAcquire("malee\n10.0.0.1", T0));
+    }
+
+    @Test
+    void retryAfterIsTheRestOfTheWindowRoundedUp() {
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(16, 1, WINDOW_MS);
+
+        assertEquals(60, limiter.retryAfterSeconds(T0));
+        assertEquals(30, limiter.retryAfterSeconds(T0 + 30_000));
+        assertEquals(1, limiter.retryAfterSeconds(T0 + WINDOW_MS - 1));
+    }
+
+    @Test
+    void concurrentAttemptsNeverExceedTheLimit() throws Exception {
+        int limit = 100;
+        SlidingWindowLimiter limiter = new SlidingWindowLimiter(16, limit, WINDOW_MS);
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(threads.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < 1_000; i++) {
+                        if (limiter.tryAcquire("10.0.0.1", T0)) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+            int allowed = 0;
+            for (Future<Integer> result : results) {
+                allowed += result.get(10, TimeUnit.SECONDS);
+            }
+            assertEquals(limit, allowed);
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+}
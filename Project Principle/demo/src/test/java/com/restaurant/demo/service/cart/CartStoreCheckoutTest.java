@@ -0,0 +1,102 @@
+package com.restaurant.demo.service.cart;
+
+import com.restaurant.demo.exception.CartCheckoutInProgressException;
+import com.restaurant.demo.model.CartItem;
+import com.restaurant.demo.model.Customer;
+import com.restaurant.demo.repository.CartItemRepository;
+import com.restaurant.demo.repository.CustomerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A cart change made while the cart is being checked out must fail instead of being written
+ * after checkout's delete and lost; a quantity change whose row is gone is counted as lost.
+ *
+ * Runs without a test transaction so the checkout transaction commits or rolls back itself.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CartStoreCheckoutTest {
+
+    @Autowired
+    private CartStore cartStore;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Customer customer;
+    private CartItem line;
+
+    @BeforeEach
+    void seedCart() {
+        customer = customerRepository.save(
+                new Customer("Cart Checkout", "cartcheckout", "cartcheckout@example.com", "0813333333", "hashed-password"));
+        line = cartStore.add(customer.getId(), "Khao Man Gai", new BigDecimal("45.00"), 1);
+    }
+
+    @AfterEach
+    void removeCart() {
+        cartStore.evict(customer.getId());
+        cartItemRepository.deleteByCustomerId(customer.getId());
+        customerRepository.delete(customer);
+    }
+
+    @Test
+    void changesFailDuringCheckoutAndTheCartIsReloadedAfterCommit() {
+        cartStore.setQuantity(customer.getId(), line.getId(), 3);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cartStore.beginCheckout(customer.getId());
+            // the pending quantity was written before checkout reads the rows
+            assertEquals(3, cartItemRepository.findById(line.getId()).orElseThrow().getQuantity());
+
+            assertThrows(CartCheckoutInProgressException.class,
+                    () -> cartStore.adjustQuantity(customer.getId(), line.getId(), 1));
+            assertThrows(CartCheckoutInProgressException.class,
+                    () -> cartStore.add(customer.getId(), "Khao Man Gai", new BigDecimal("45.00"), 1));
+            cartItemRepository.deleteByCustomerId(customer.getId());
+        });
+
+        assertTrue(cartStore.getItems(customer.getId()).isEmpty(), "cart reloaded after the order committed");
+    }
+
+    @Test
+    void cartReopensWhenCheckoutRollsBack() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cartStore.beginCheckout(customer.getId());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(2, cartStore.adjustQuantity(customer.getId(), line.getId(), 1).getQuantity());
+    }
+
+    @Test
+    void quantityChangeForADeletedRowIsCountedAsLost() {
+        long lostBefore = cartStore.getLostLineCount();
+        cartStore.setQuantity(customer.getId(), line.getId(), 5);
+        cartItemRepository.deleteById(line.getId());
+
+        cartStore.flushDirty();
+
+        assertEquals(lostBefore + 1, cartStore.getLostLineCount());
+        assertTrue(cartStore.getItems(customer.getId()).isEmpty(), "lost line dropped from the cart");
+    }
+}
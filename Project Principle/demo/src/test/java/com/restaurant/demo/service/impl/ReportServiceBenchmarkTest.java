@@ -0,0 +1,195 @@
+package com.restaurant.demo.service.impl;
+
+import com.restaurant.demo.dto.ReportSummary;
+import com.restaurant.demo.service.ReportService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Latency comparison between the legacy four-query monthly report (YEAR()/MONTH() over orders)
+ * and the current rollup-based single-pass report.
+ *
+ * Skipped by default. Run with:
+ *   mvn test -Dtest=ReportServiceBenchmarkTest -Dbenchmark=true [-Dbenchmark.orders=1000000]
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = {
+                // own database, no SQL echo, and no H2 result reuse so repeated legacy queries really execute
+                "spring.datasource.url=jdbc:h2:mem:reportbench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE",
+                "spring.jpa.show-sql=false",
+                "logging.level.com.restaurant.demo=INFO"
+        })
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReportServiceBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportServiceBenchmarkTest.class);
+
+    private static final String[] MENU = {"Pad Thai", "Bamee Moo Daeng", "Thai Tea", "Khao Man Gai", "Som Tam"};
+    private static final int BATCH_SIZE = 5_000;
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 10;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private int year;
+
+    @BeforeEach
+    void seedOrders() {
+        int orderCount = Integer.getInteger("benchmark.orders", 1_000_000);
+        year = LocalDateTime.now().getYear();
+        LocalDateTime now = LocalDateTime.now();
+
+        jdbcTemplate.update("INSERT INTO customers (name, username, email, phone, password_hash, created_at, updated_at) "
+                + "VALUES ('Benchmark Customer', 'benchmark', 'benchmark@example.com', '0800000000', 'x', ?, ?)",
+                Timestamp.valueOf(now), Timestamp.valueOf(now));
+        Long customerId = jdbcTemplate.queryForObject("SELECT id FROM customers WHERE username = 'benchmark'", Long.class);
+
+        // ออเดอร์กระจายย้อนหลัง 3 ปี สถานะวนกัน (ครึ่งหนึ่งเป็น Finish)
+        String[] statuses = {"Finish", "Finish", "Cancelled", "Pending"};
+        LocalDateTime origin = LocalDateTime.of(year - 2, 1, 1, 10, 0);
+        long spanMinutes = java.time.Duration.between(origin, now).toMinutes();
+
+        for (int start = 0; start < orderCount; start += BATCH_SIZE) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int i = start; i < Math.min(start + BATCH_SIZE, orderCount); i++) {
+                Timestamp createdAt = Timestamp.valueOf(origin.plusMinutes((i * 7919L) % spanMinutes));
+                rows.add(new Object[]{customerId, statuses[i % statuses.length], new BigDecimal("120.00"), createdAt, createdAt});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO orders (customer_id, status, total_amount, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?)", rows);
+        }
+        jdbcTemplate.update("INSERT INTO order_items (order_id, item_name, item_price, quantity, total, created_at, updated_at) "
+                + "SELECT o.id, CASE MOD(o.id, 5) WHEN 0 THEN '" + MENU[0] + "' WHEN 1 THEN '" + MENU[1]
+                + "' WHEN 2 THEN '" + MENU[2] + "' WHEN 3 THEN '" + MENU[3] + "' ELSE '" + MENU[4] + "' END, "
+                + "60.00, 2, 120.00, o.created_at, o.created_at FROM orders o");
+
+        // Same backfill the V4 migration runs against existing data
+        jdbcTemplate.update("INSERT INTO sales_daily (sales_date, revenue, order_count) "
+                + "SELECT CAST(o.created_at AS DATE), SUM(o.total_amount), COUNT(*) FROM orders o "
+                + "WHERE o.status = 'Finish' GROUP BY CAST(o.created_at AS DATE)");
+        jdbcTemplate.update("INSERT INTO sales_daily_item (sales_date, item_name, quantity) "
+                + "SELECT CAST(o.created_at AS DATE), oi.item_name, SUM(oi.quantity) FROM order_items oi "
+                + "JOIN orders o ON oi.order_id = o.id WHERE o.status = 'Finish' "
+                + "GROUP BY CAST(o.created_at AS DATE), oi.item_name");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM sales_daily_item");
+        jdbcTemplate.update("DELETE FROM sales_daily");
+        jdbcTemplate.update("DELETE FROM order_items");
+        jdbcTemplate.update("DELETE FROM orders");
+        jdbcTemplate.update("DELETE FROM customers WHERE username = 'benchmark'");
+    }
+
+    @Test
+    void compareLegacyAndRollupReport() {
+        int month = 6;
+
+        ReportSummary legacy = transactionTemplate.execute(status -> legacyMonthlyReport(month, year - 1));
+        ReportSummary current = reportService.getMonthlyReport(month, year - 1);
+        assertEquals(0, legacy.getTotalRevenue().compareTo(current.getTotalRevenue()));
+        assertEquals(legacy.getTotalOrders(), current.getTotalOrders());
+        assertEquals(legacy.getTopCount(), current.getTopCount());
+
+        report("legacy  month", () -> transactionTemplate.execute(status -> legacyMonthlyReport(month, year - 1)));
+        report("rollup  month", () -> reportService.getMonthlyReport(month, year - 1));
+        report("legacy  year ", () -> transactionTemplate.execute(status -> legacyMonthlyReport(0, year - 1)));
+        report("rollup  year ", () -> reportService.getMonthlyReport(0, year - 1));
+    }
+
+    private void report(String label, Supplier<ReportSummary> run) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run.get();
+        }
+        long[] samples = new long[MEASURED_RUNS];
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long startNanos = System.nanoTime();
+            run.get();
+            samples[i] = System.nanoTime() - startNanos;
+        }
+        Arrays.sort(samples);
+        logger.info("[report-benchmark] {} median={} ms max={} ms", label,
+                String.format("%.2f", samples[MEASURED_RUNS / 2] / 1e6),
+                String.format("%.2f", samples[MEASURED_RUNS - 1] / 1e6));
+    }
+
+    /**
+     * The report as it was implemented before the sales rollup: four statements over orders/order_items
+     */
+    @SuppressWarnings("unchecked")
+    private ReportSummary legacyMonthlyReport(int month, int year) {
+        boolean isWholeYear = month == 0;
+        String period = " AND YEAR(o.created_at) = :year" + (isWholeYear ? "" : " AND MONTH(o.created_at) = :month");
+
+        var revenueQuery = entityManager.createNativeQuery(
+                "SELECT COALESCE(SUM(o.total_amount), 0) FROM orders o WHERE o.status = 'Finish'" + period);
+        var countQuery = entityManager.createNativeQuery(
+                "SELECT COUNT(*) FROM orders o WHERE o.status = 'Finish'" + period);
+        var topQuery = entityManager.createNativeQuery(
+                "SELECT oi.item_name, SUM(oi.quantity) AS total_sold FROM order_items oi JOIN orders o ON oi.order_id = o.id "
+                        + "WHERE o.status = 'Finish'" + period + " GROUP BY oi.item_name ORDER BY total_sold DESC LIMIT 1");
+        for (var query : List.of(revenueQuery, countQuery, topQuery)) {
+            query.setParameter("year", year);
+            if (!isWholeYear) query.setParameter("month", month);
+        }
+        List<Object[]> monthlyRows = entityManager.createNativeQuery(
+                "SELECT MONTH(o.created_at), COALESCE(SUM(o.total_amount), 0) FROM orders o "
+                        + "WHERE o.status = 'Finish' AND YEAR(o.created_at) = :year GROUP BY MONTH(o.created_at)")
+                .setParameter("year", year)
+                .getResultList();
+
+        BigDecimal revenue = (BigDecimal) revenueQuery.getSingleResult();
+        long count = ((Number) countQuery.getSingleResult()).longValue();
+        List<Object[]> top = topQuery.getResultList();
+        List<BigDecimal> monthlySales = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            BigDecimal value = BigDecimal.ZERO;
+            for (Object[] row : monthlyRows) {
+                if (((Number) row[0]).intValue() == i) {
+                    value = (BigDecimal) row[1];
+                    break;
+                }
+            }
+            monthlySales.add(value);
+        }
+        return new ReportSummary(revenue, count,
+                top.isEmpty() ? "-" : top.get(0)[0].toString(),
+                top.isEmpty() ? 0 : ((Number) top.get(0)[1]).longValue(),
+                monthlySales);
+    }
+}